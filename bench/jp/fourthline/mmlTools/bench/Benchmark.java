@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.bench;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * ベンチマーク計測.
+ * <p>
+ * ウォームアップ後, 指定時間の計測を複数回行い, 1操作あたりの平均時間を出力する.
+ * </p>
+ * <pre>
+ * -Dbench.warmup=5        ウォームアップ回数
+ * -Dbench.iterations=10   計測回数
+ * -Dbench.time=200        1回あたりの計測時間 (ms)
+ * -Dbench.filter=regex    実行するベンチマーク名
+ * </pre>
+ */
+public final class Benchmark {
+	public interface Body {
+		Object run() throws Exception;
+	}
+
+	/** 結果を捨てないための参照先 */
+	private static volatile Object sink;
+
+	private final int warmup = Integer.getInteger("bench.warmup", 5);
+	private final int iterations = Integer.getInteger("bench.iterations", 10);
+	private final long timeNanos = Long.getLong("bench.time", 200) * 1_000_000L;
+	private final Pattern filter = Pattern.compile(System.getProperty("bench.filter", ".*"));
+
+	public Benchmark() {
+		System.out.printf("# warmup=%d, iterations=%d, time=%dms%n", warmup, iterations, timeNanos / 1_000_000L);
+		System.out.printf("%-36s %8s %14s %12s%n", "Benchmark", "Cnt", "Score(us/op)", "Error");
+	}
+
+	/**
+	 * @param name  ベンチマーク名
+	 * @param body  計測対象
+	 */
+	public void run(String name, Body body) throws Exception {
+		if (!filter.matcher(name).find()) {
+			return;
+		}
+		for (int i = 0; i < warmup; i++) {
+			iteration(body);
+		}
+		double[] score = new double[iterations];
+		for (int i = 0; i < iterations; i++) {
+			score[i] = iteration(body);
+		}
+		double mean = Arrays.stream(score).average().orElse(0);
+		double var = Arrays.stream(score).map(t -> (t - mean) * (t - mean)).sum() / Math.max(1, iterations - 1);
+		System.out.printf("%-36s %8d %14.3f %12.3f%n", name, iterations, mean / 1000.0, Math.sqrt(var) / 1000.0);
+	}
+
+	/**
+	 * @return 1操作あたりの時間 (ns)
+	 */
+	private double iteration(Body body) throws Exception {
+		long ops = 0;
+		long start = System.nanoTime();
+		long end;
+		do {
+			sink = body.run();
+			ops++;
+			end = System.nanoTime();
+		} while (end - start < timeNanos);
+		return (double) (end - start) / ops;
+	}
+}
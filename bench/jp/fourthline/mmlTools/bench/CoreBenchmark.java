@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import jp.fourthline.mmlTools.MMLBuilder;
+import jp.fourthline.mmlTools.MMLEventList;
+import jp.fourthline.mmlTools.MMLScore;
+import jp.fourthline.mmlTools.MMLScoreSerializer;
+import jp.fourthline.mmlTools.MMLTrack;
+import jp.fourthline.mmlTools.core.MMLTickTableBenchmark;
+import jp.fourthline.mmlTools.optimizer.MMLStringOptimizer;
+import jp.fourthline.mmlTools.parser.MMLEventParser;
+
+/**
+ * mmlTools コアのベンチマーク.
+ * <pre>
+ * ant benchmark
+ * ant benchmark -Dbench.args="-Dbench.tracks=16 -Dbench.filter=optimizer"
+ * </pre>
+ * 合成スコアの設定は {@link SyntheticScore}, 計測の設定は {@link Benchmark} を参照.
+ * -Dbench.fixtures で指定したディレクトリの *.mmi ファイルも読み込み/書き出しの対象とする.
+ */
+public final class CoreBenchmark {
+	public static void main(String[] args) throws Exception {
+		var synthetic = new SyntheticScore();
+		MMLScore score = synthetic.create();
+		score.generateAll();
+		System.out.println("# synthetic score: " + synthetic);
+
+		// パートごとの未最適化MML
+		List<String> rawMML = new ArrayList<>();
+		List<MMLEventList> partList = new ArrayList<>();
+		for (MMLTrack track : score.getTrackList()) {
+			for (MMLEventList eventList : track.getMMLEventList()) {
+				if (eventList.getMMLNoteEventList().isEmpty()) {
+					continue;
+				}
+				partList.add(eventList);
+				rawMML.add(MMLBuilder.create(eventList).toMMLString());
+			}
+		}
+		var tempoList = score.getTempoEventList();
+
+		var bench = new Benchmark();
+		bench.run("optimizer.gen1", () -> {
+			int len = 0;
+			for (String mml : rawMML) {
+				len += new MMLStringOptimizer(mml).optimize(false).length();
+			}
+			return len;
+		});
+		bench.run("optimizer.gen2", () -> {
+			int len = 0;
+			for (String mml : rawMML) {
+				len += new MMLStringOptimizer(mml).optimizeGen2().length();
+			}
+			return len;
+		});
+		bench.run("optimizer.gen3", () -> {
+			int len = 0;
+			for (String mml : rawMML) {
+				len += new MMLStringOptimizer(mml).optimizeGen3().length();
+			}
+			return len;
+		});
+		bench.run("builder.toMMLStringMusicQ", () -> {
+			int len = 0;
+			for (MMLEventList eventList : partList) {
+				len += MMLBuilder.create(eventList).toMMLStringMusicQ(new LinkedList<>(tempoList), null).length();
+			}
+			return len;
+		});
+		bench.run("parser.MMLEventParser", () -> {
+			int count = 0;
+			for (String mml : rawMML) {
+				var parser = new MMLEventParser(mml);
+				while (parser.hasNext()) {
+					parser.next();
+					count++;
+				}
+			}
+			return count;
+		});
+		bench.run("tickTable.generateInvTable", MMLTickTableBenchmark::generate);
+
+		byte[] syntheticData = write(score);
+		bench.run("serializer.write.synthetic", () -> write(score));
+		bench.run("serializer.parse.synthetic", () -> parse(syntheticData));
+
+		File fixtures = new File(System.getProperty("bench.fixtures", "test/jp/fourthline/mmlTools/parser"));
+		File[] files = fixtures.listFiles((dir, name) -> name.endsWith(".mmi"));
+		if (files != null) {
+			Arrays.sort(files);
+			for (File file : files) {
+				byte[] data = Files.readAllBytes(file.toPath());
+				String name = file.getName().replace(".mmi", "");
+				bench.run("serializer.parse." + name, () -> parse(data));
+			}
+		}
+	}
+
+	private static byte[] write(MMLScore score) {
+		var ostream = new ByteArrayOutputStream();
+		new MMLScoreSerializer(score).writeToOutputStream(ostream);
+		return ostream.toByteArray();
+	}
+
+	private static MMLScore parse(byte[] data) throws Exception {
+		var score = new MMLScore();
+		return new MMLScoreSerializer(score).parse(new ByteArrayInputStream(data));
+	}
+}
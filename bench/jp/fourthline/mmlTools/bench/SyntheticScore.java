@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.bench;
+
+import java.util.Random;
+
+import jp.fourthline.mmlTools.MMLEventList;
+import jp.fourthline.mmlTools.MMLNoteEvent;
+import jp.fourthline.mmlTools.MMLScore;
+import jp.fourthline.mmlTools.MMLTempoEvent;
+import jp.fourthline.mmlTools.MMLTrack;
+
+/**
+ * ベンチマーク用の合成スコア. 同じ設定とシードからは同じスコアを生成する.
+ * <pre>
+ * -Dbench.tracks=8      トラック数
+ * -Dbench.measures=64   小節数
+ * -Dbench.density=8     1小節あたりのノート数 (メロディパート)
+ * -Dbench.tempo=16      テンポ変更数
+ * -Dbench.seed=1        乱数シード
+ * </pre>
+ */
+public final class SyntheticScore {
+	private static final int[] LENGTH_LIST = { 6, 12, 24, 36, 48, 72, 96 };
+
+	private final int tracks = Math.min(Integer.getInteger("bench.tracks", 8), MMLScore.MAX_TRACK);
+	private final int measures = Integer.getInteger("bench.measures", 64);
+	private final int density = Integer.getInteger("bench.density", 8);
+	private final int tempoCount = Integer.getInteger("bench.tempo", 16);
+	private final long seed = Long.getLong("bench.seed", 1);
+
+	public MMLScore create() {
+		var random = new Random(seed);
+		var score = new MMLScore();
+		int measureTick = score.getMeasureTick();
+
+		for (int i = 0; i < tracks; i++) {
+			var track = new MMLTrack();
+			track.setTrackName("Track" + (i + 1));
+			fillPart(track.getMMLEventAtIndex(0), random, measureTick, density);
+			fillPart(track.getMMLEventAtIndex(1), random, measureTick, Math.max(1, density / 2));
+			fillPart(track.getMMLEventAtIndex(2), random, measureTick, Math.max(1, density / 4));
+			score.addTrack(track);
+		}
+
+		var tempoList = score.getTempoEventList();
+		new MMLTempoEvent(120, 0).appendToListElement(tempoList);
+		for (int i = 0; i < tempoCount; i++) {
+			int tick = (1 + random.nextInt(Math.max(1, measures - 1))) * measureTick + random.nextInt(4) * (measureTick / 4);
+			new MMLTempoEvent(60 + random.nextInt(180), tick).appendToListElement(tempoList);
+		}
+		return score;
+	}
+
+	private void fillPart(MMLEventList eventList, Random random, int measureTick, int notes) {
+		int slot = Math.max(1, measureTick / notes);
+		for (int m = 0; m < measures; m++) {
+			for (int n = 0; n < notes; n++) {
+				if (random.nextInt(8) == 0) {
+					continue;
+				}
+				int tick = LENGTH_LIST[random.nextInt(LENGTH_LIST.length)];
+				tick = Math.min(tick, slot);
+				int note = 36 + random.nextInt(48);
+				int velocity = 8 + random.nextInt(8);
+				eventList.addMMLNoteEvent(new MMLNoteEvent(note, tick, m * measureTick + n * slot, velocity));
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("tracks=%d, measures=%d, density=%d, tempo=%d, seed=%d", tracks, measures, density, tempoCount, seed);
+	}
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.core;
+
+/**
+ * MMLTickTableの生成 (逆引きテーブルの生成を含む).
+ */
+public final class MMLTickTableBenchmark {
+	private MMLTickTableBenchmark() {}
+
+	public static Object generate() {
+		return new MMLTickTable(null);
+	}
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import javax.sound.midi.MidiSystem;
+
+import jp.fourthline.mabiicco.midi.MabiDLS;
+import jp.fourthline.mmlTools.MMLScore;
+import jp.fourthline.mmlTools.MMLScoreSerializer;
+import jp.fourthline.mmlTools.MMLTrack;
+import jp.fourthline.mmlTools.core.MMLException;
+import jp.fourthline.mmlTools.core.NanoTime;
+import jp.fourthline.mmlTools.parser.IMMLFileParser;
+import jp.fourthline.mmlTools.parser.MMLParseException;
+
+/**
+ * GUIを使用せずに, ファイル・ディレクトリ単位でMMLファイルを変換する.
+ * <pre>
+ * java -cp MabiIcco.jar jp.fourthline.mabiicco.BatchConverter [options] input...
+ *   -f, --format (mmi|mml|mid|wav)  出力形式 (default: mmi). mml はトラックごとのMML@テキスト (.mml.txt)
+ *   -o, --out dir                   出力ディレクトリ (default: 入力ファイルと同じ場所)
+ *   -j, --jobs n                    並列数 (default: CPU数)
+ *   -r, --recursive                 ディレクトリを再帰的に処理する
+ *   --overwrite                     既存の出力ファイルを上書きする
+ *   --no-dls                        音源を読み込まない (mid, wav出力は不可)
+ * </pre>
+ * 入力形式は mmi, mml, mms, mid, txt. パース設定は各パーサーのデフォルト値を使用する.
+ * 出力ファイルが他の入力ファイルや出力ファイルと重なる場合は, そのファイルは変換しない.
+ */
+public final class BatchConverter {
+	private static final List<String> INPUT_SUFFIX = List.of(".mmi", ".mml", ".mms", ".mid", ".txt");
+
+	public enum Format {
+		MMI("mmi"), MML("mml.txt"), MID("mid"), WAV("wav");
+
+		private final String suffix;
+		private Format(String suffix) {
+			this.suffix = suffix;
+		}
+	}
+
+	/**
+	 * 1ファイルの変換結果
+	 */
+	public record Result(File input, File output, long ms, String error) {
+		public boolean isOk() {
+			return error == null;
+		}
+
+		@Override
+		public String toString() {
+			if (isOk()) {
+				return "[OK] " + ms + "ms " + input + " -> " + output;
+			} else {
+				return "[NG] " + ms + "ms " + input + ": " + error;
+			}
+		}
+	}
+
+	private Format format = Format.MMI;
+	private File outDir = null;
+	private int jobs = Runtime.getRuntime().availableProcessors();
+	private boolean recursive = false;
+	private boolean overwrite = false;
+	private boolean useDLS = true;
+	private final List<File> inputs = new ArrayList<>();
+
+	public BatchConverter setFormat(Format format) {
+		this.format = format;
+		return this;
+	}
+
+	public BatchConverter setOutDir(File outDir) {
+		this.outDir = outDir;
+		return this;
+	}
+
+	public BatchConverter setJobs(int jobs) {
+		this.jobs = Math.max(1, jobs);
+		return this;
+	}
+
+	public BatchConverter setRecursive(boolean recursive) {
+		this.recursive = recursive;
+		return this;
+	}
+
+	public BatchConverter setOverwrite(boolean overwrite) {
+		this.overwrite = overwrite;
+		return this;
+	}
+
+	public BatchConverter setUseDLS(boolean useDLS) {
+		this.useDLS = useDLS;
+		return this;
+	}
+
+	public BatchConverter addInput(File file) {
+		inputs.add(file);
+		return this;
+	}
+
+	private static boolean isInputFile(Path path) {
+		String name = path.getFileName().toString().toLowerCase();
+		return Files.isRegularFile(path) && INPUT_SUFFIX.stream().anyMatch(name::endsWith);
+	}
+
+	private static String baseName(File file) {
+		String name = file.getName();
+		int index = name.lastIndexOf('.');
+		return (index > 0) ? name.substring(0, index) : name;
+	}
+
+	/**
+	 * 入力ファイルと出力ファイルの組を作成する.
+	 * ディレクトリ指定の場合は, 出力ディレクトリ配下に同じ構成で出力する.
+	 */
+	List<File[]> listTargets() throws IOException {
+		var list = new ArrayList<File[]>();
+		for (File input : inputs) {
+			if (input.isDirectory()) {
+				Path root = input.toPath();
+				try (Stream<Path> stream = recursive ? Files.walk(root) : Files.list(root)) {
+					for (Path path : stream.filter(BatchConverter::isInputFile).sorted().toList()) {
+						Path parent = root.relativize(path).getParent();
+						File dir = (outDir == null) ? path.toFile().getParentFile()
+								: (parent == null) ? outDir : new File(outDir, parent.toString());
+						list.add(new File[] { path.toFile(), outputFile(dir, path.toFile()) });
+					}
+				}
+			} else {
+				File dir = (outDir == null) ? input.getAbsoluteFile().getParentFile() : outDir;
+				list.add(new File[] { input, outputFile(dir, input) });
+			}
+		}
+		return list;
+	}
+
+	private File outputFile(File dir, File input) {
+		return new File(dir, baseName(input) + "." + format.suffix);
+	}
+
+	/**
+	 * 出力ファイルが他の入力ファイル, または他の出力ファイルと重なるものを検出する.
+	 * 出力形式が入力形式と同じ拡張子の場合や, 拡張子違いの同名の入力ファイルがある場合に発生する.
+	 * @param targets 入力ファイルと出力ファイルの組
+	 * @return targets と同じ順の, 重なりがあるものはエラーメッセージ, ないものは null
+	 */
+	static List<String> checkConflicts(List<File[]> targets) throws IOException {
+		var inputSet = new HashSet<File>();
+		for (File[] target : targets) {
+			inputSet.add(target[0].getCanonicalFile());
+		}
+		var outputSet = new HashSet<File>();
+		var list = new ArrayList<String>(targets.size());
+		for (File[] target : targets) {
+			File input = target[0].getCanonicalFile();
+			File output = target[1].getCanonicalFile();
+			if (!input.equals(output) && inputSet.contains(output)) {
+				list.add("output file conflicts with other input file");
+			} else if (!outputSet.add(output)) {
+				list.add("output file conflicts with other output file");
+			} else {
+				list.add(null);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * 1ファイルを変換する.
+	 * @param input  入力ファイル
+	 * @param output 出力ファイル
+	 * @return 変換結果
+	 */
+	Result convert(File input, File output) {
+		NanoTime time = NanoTime.start();
+		try {
+			if (input.getCanonicalFile().equals(output.getCanonicalFile())) {
+				return new Result(input, output, time.ms(), "same as input file");
+			}
+			if (!overwrite && output.exists()) {
+				return new Result(input, output, time.ms(), "output file already exists");
+			}
+
+			MMLScore score = parse(input);
+			if (score == null) {
+				return new Result(input, output, time.ms(), "parse error");
+			}
+			File dir = output.getAbsoluteFile().getParentFile();
+			if (dir != null) {
+				Files.createDirectories(dir.toPath());
+			}
+			if (format == Format.WAV) {
+				// 再生せずにシンセサイザの出力を直接書き込む.
+				MabiDLS.getInstance().createWavRenderer(score).render(output);
+			} else {
+				try (var outputStream = new FileOutputStream(output)) {
+					write(score, outputStream);
+				}
+			}
+			return new Result(input, output, time.ms(), null);
+		} catch (Exception e) {
+			String message = e.getLocalizedMessage();
+			return new Result(input, output, time.ms(), e.getClass().getSimpleName() + ((message != null) ? ": " + message : ""));
+		}
+	}
+
+	private MMLScore parse(File file) throws IOException, MMLParseException {
+		IMMLFileParser parser = IMMLFileParser.getParser(file);
+		try (var in = new FileInputStream(file)) {
+			MMLScore score = parser.parse(in);
+			if (score != null) {
+				// ファイルを開く場合と同じく, mabiicco由来のファイルであれば generateされたものにする.
+				score = score.toGeneratedScore(MabiIccoProperties.getInstance().reGenerateWithOpen.get());
+			}
+			return score;
+		}
+	}
+
+	private void write(MMLScore score, OutputStream outputStream) throws Exception {
+		switch (format) {
+		case MMI:
+			new MMLScoreSerializer(score).writeToOutputStream(outputStream);
+			break;
+		case MML:
+			score.generateAll();
+			var stream = new PrintStream(outputStream, false, StandardCharsets.UTF_8);
+			for (MMLTrack track : score.getTrackList()) {
+				stream.println("# " + track.getTrackName() + " " + track.mmlRankFormat());
+				stream.println(track.getMabiMML());
+			}
+			stream.flush();
+			break;
+		case MID:
+			MidiSystem.write(MabiDLS.getInstance().createSequenceForMidi(score), 1, outputStream);
+			break;
+		default:
+			throw new IllegalArgumentException(format.toString());
+		}
+	}
+
+	/**
+	 * 全ファイルを並列に変換する. 結果は完了順に out に出力する.
+	 * @param out 進捗の出力先
+	 * @return 入力順の変換結果
+	 */
+	public List<Result> execute(PrintStream out) throws IOException, InterruptedException {
+		var targets = listTargets();
+		var conflicts = checkConflicts(targets);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, Math.max(1, targets.size())));
+		try {
+			var futures = new ArrayList<Future<Result>>(targets.size());
+			for (int i = 0; i < targets.size(); i++) {
+				File[] target = targets.get(i);
+				String conflict = conflicts.get(i);
+				futures.add(executor.submit(() -> {
+					Result result = (conflict == null) ? convert(target[0], target[1]) : new Result(target[0], target[1], 0, conflict);
+					out.println(result);
+					return result;
+				}));
+			}
+			var results = new ArrayList<Result>(futures.size());
+			for (var future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * GUIと同じ設定で音源情報を読み込む. MML生成時の音源ごとの処理, MIDI出力で使用する.
+	 */
+	private static void initializeDLS() throws Exception {
+		MabiDLS.getInstance().initializeMIDI();
+		MabiIcco.initInstCatalog();
+		MabiIcco.loadSoundBank(t -> {}, () -> System.err.println(AppResource.appText("message.useDefaultSoundbank")));
+	}
+
+	private static void usage() {
+		System.err.println("usage: BatchConverter [-f mmi|mml|mid|wav] [-o outDir] [-j jobs] [-r] [--overwrite] [--no-dls] input...");
+	}
+
+	public static void main(String[] args) {
+		var converter = new BatchConverter();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "-f", "--format" -> converter.setFormat(Format.valueOf(args[++i].toUpperCase()));
+				case "-o", "--out" -> converter.setOutDir(new File(args[++i]));
+				case "-j", "--jobs" -> converter.setJobs(Integer.parseInt(args[++i]));
+				case "-r", "--recursive" -> converter.setRecursive(true);
+				case "--overwrite" -> converter.setOverwrite(true);
+				case "--no-dls" -> converter.setUseDLS(false);
+				default -> converter.addInput(new File(args[i]));
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			usage();
+			System.exit(2);
+		}
+		if (converter.inputs.isEmpty() || (!converter.useDLS && ((converter.format == Format.MID) || (converter.format == Format.WAV)))) {
+			usage();
+			System.exit(2);
+		}
+
+		try {
+			MMLException.setLocalizeFunc(t -> AppResource.appText(t));
+			if (converter.useDLS) {
+				initializeDLS();
+			}
+			MabiIcco.initOptimizerDiskCache(false);
+
+			NanoTime time = NanoTime.start();
+			var results = converter.execute(System.out);
+			long ng = results.stream().filter(t -> !t.isOk()).count();
+			System.out.println("total: " + results.size() + ", error: " + ng + ", " + time.ms() + "ms");
+			System.exit((ng == 0) ? 0 : 1);
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
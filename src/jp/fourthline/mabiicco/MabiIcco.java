@@ -8,16 +8,22 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.DoubleConsumer;
 
 import javax.sound.midi.InvalidMidiDataException;
 import javax.swing.JOptionPane;
 
+import jp.fourthline.mabiicco.midi.DLSInstCatalog;
 import jp.fourthline.mabiicco.midi.InstType;
 import jp.fourthline.mabiicco.midi.MabiDLS;
 import jp.fourthline.mabiicco.ui.MainFrame;
 import jp.fourthline.mmlTools.MMLTrack;
 import jp.fourthline.mmlTools.core.MMLException;
+import jp.fourthline.mmlTools.core.ResourceLoader;
+import jp.fourthline.mmlTools.optimizer.MMLStringOptimizer;
+import jp.fourthline.mmlTools.optimizer.OptimizerDiskCache;
 import jp.fourthline.mmlTools.parser.MidiFile;
 
 
@@ -32,6 +38,8 @@ import jp.fourthline.mmlTools.parser.MidiFile;
  * </pre>
  */
 public final class MabiIcco {
+	private static final String OPTIMIZER_CACHE_FILE = ".mabiicco.optcache";
+
 	public interface ISplash {
 		void setVisible(boolean b);
 		void updateProgress(String s, int v);
@@ -56,21 +64,68 @@ public final class MabiIcco {
 		initialize();
 	}
 
-	private boolean tempoAllowChordPart(int t) {
-		var inst = dls.getInstByProgram(t);
-		if (inst != null) {
-			return inst.getType().allowTempoChordPart();
+	/**
+	 * MML生成, ファイル読み込み時に参照する楽器情報を設定する.
+	 */
+	static void initInstCatalog() {
+		MMLTrack.setInstCatalog(new DLSInstCatalog(MabiDLS.getInstance(), MabiIccoProperties.getInstance()));
+	}
+
+	/**
+	 * MML最適化結果のディスクキャッシュを読み込み, 終了時に保存する.
+	 * @param background true の場合は別スレッドで読み込み, 読み込み完了までディスクキャッシュを使わない.
+	 */
+	static void initOptimizerDiskCache(boolean background) {
+		if (!MabiIccoProperties.getInstance().optimizerDiskCache.get()) {
+			return;
+		}
+		Runnable load = () -> {
+			var path = Path.of(ResourceLoader.getAppConfigPath(OPTIMIZER_CACHE_FILE));
+			var cache = OptimizerDiskCache.open(path, MMLStringOptimizer.OPTIMIZER_VERSION, OptimizerDiskCache.DEFAULT_MAX_BYTES);
+			MMLStringOptimizer.setDiskCache(cache);
+			Runtime.getRuntime().addShutdownHook(new Thread(cache::save));
+		};
+		if (background) {
+			var thread = new Thread(load, "OptimizerDiskCache");
+			thread.setDaemon(true);
+			thread.start();
+		} else {
+			load.run();
 		}
-		return true;
 	}
 
-	public boolean percussionMotionFix(int t) {
-		if (appProperties.percussionMotionFix.get()) {
-			var inst = dls.getInstByProgram(t);
-			var type = inst.getType();
-			return ( (type == InstType.KPUR) || (type == InstType.PERCUSSION) );
+	/**
+	 * 設定に従って音源を読み込む.
+	 * DLSファイルから楽器を1つも読み込めなかった場合は, 内蔵音源を使用する.
+	 * 内蔵音源を使わないときはMIDファイル読み込み時のProgram変換を有効にする.
+	 * @param progress     DLSファイルを1つ読み込むごとに, 読み込み済みの割合 (0.0-1.0) で呼ばれる.
+	 * @param fallback     DLSファイルのかわりに内蔵音源を使用する場合に, 読み込み前に呼ばれる.
+	 * @return 内蔵音源を使用する場合は true.
+	 * @throws InvalidMidiDataException
+	 * @throws IOException
+	 */
+	static boolean loadSoundBank(DoubleConsumer progress, Runnable fallback) throws InvalidMidiDataException, IOException {
+		var dls = MabiDLS.getInstance();
+		boolean useDefault = MabiIccoProperties.getInstance().useDefaultSoundBank.get();
+		if (!useDefault) {
+			List<File> dlsFiles = MabiIccoProperties.getInstance().getDlsFile();
+			int count = 0;
+			for (File file : dlsFiles) {
+				dls.loadingDLSFile(file);
+				progress.accept((double) ++count / dlsFiles.size());
+			}
+			if (dls.getAvailableInstByInstType(InstType.MAIN_INST_LIST).length == 0) {
+				fallback.run();
+				useDefault = true;
+			}
 		}
-		return false;
+
+		if (useDefault) {
+			dls.loadingDefaultSound();
+		} else {
+			MidiFile.enableInstPatch();
+		}
+		return useDefault;
 	}
 
 	private void initialize() throws Exception {
@@ -78,25 +133,20 @@ public final class MabiIcco {
 		dls.initializeMIDI();
 		splash.updateProgress("OK\n", 20);
 
-		MMLTrack.setTempoAllowChordPartFunction(this::tempoAllowChordPart);
-		MMLTrack.setPercussionMotionFixFunction(this::percussionMotionFix);
+		initInstCatalog();
+		initOptimizerDiskCache(true);
 
-		if (appProperties.useDefaultSoundBank.get()) {
-			dls.loadingDefaultSound();
-		} else {
+		boolean loadDLS = !appProperties.useDefaultSoundBank.get();
+		if (loadDLS) {
 			// loading DLS
 			splash.updateProgress(AppResource.appText("init.dls"), 20);
-			if ( !tryloadDLSFiles(20, 70) ) {
-				JOptionPane.showMessageDialog(null, AppResource.appText("message.useDefaultSoundbank"), AppResource.getAppTitle(), JOptionPane.INFORMATION_MESSAGE);
-				appProperties.useDefaultSoundBank.set(true);
-				dls.loadingDefaultSound();
-			}
-			splash.updateProgress("OK\n", 90);
 		}
-
-		if (!appProperties.useDefaultSoundBank.get()) {
-			// 内蔵音源を使わないときはMIDファイル読み込み時のProgram変換を有効にする
-			MidiFile.enableInstPatch();
+		loadSoundBank(t -> splash.updateProgress("", (int)(20 + 50 * t)), () -> {
+			JOptionPane.showMessageDialog(null, AppResource.appText("message.useDefaultSoundbank"), AppResource.getAppTitle(), JOptionPane.INFORMATION_MESSAGE);
+			appProperties.useDefaultSoundBank.set(true);
+		});
+		if (loadDLS) {
+			splash.updateProgress("OK\n", 90);
 		}
 
 		// create MainFrame
@@ -127,25 +177,6 @@ public final class MabiIcco {
 		dispatcher.checkAndOpenMMLFile(f);
 	}
 
-	/**
-	 * DLSファイルのロードを試みます.
-	 * @return 1つ以上のInstrumentをロードできれば true.
-	 * @throws InvalidMidiDataException
-	 * @throws IOException
-	 */
-	private boolean tryloadDLSFiles(double initialProgress, double endProgress) throws InvalidMidiDataException, IOException {
-		List<File> dlsFiles = appProperties.getDlsFile();
-		double progressStep = (endProgress - initialProgress) / dlsFiles.size();
-		double progress = initialProgress;
-		for (File file : dlsFiles) {
-			dls.loadingDLSFile(file);
-			progress += progressStep;
-			splash.updateProgress("", (int)progress);
-		}
-
-		return dls.getAvailableInstByInstType(InstType.MAIN_INST_LIST).length > 0;
-	}
-
 	public static void main(String[] args) {
 		try {
 			var properties = MabiIccoProperties.getInstance();
@@ -162,6 +162,9 @@ public final class MabiIccoProperties {
 	/** DrumConverter: custom map */
 	public final Property<String> drumConvertCustomMap = new StringProperty("function.drum_convert_custom_map");
 
+	/** MML最適化結果をディスクへキャッシュする */
+	public final Property<Boolean> optimizerDiskCache = new BooleanProperty("function.optimizer_disk_cache", false);
+
 	public static MabiIccoProperties getInstance() {
 		return instance;
 	}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import java.util.List;
+
+import jp.fourthline.mabiicco.MabiIccoProperties;
+import jp.fourthline.mmlTools.IInstCatalog;
+
+/**
+ * MabiDLSに読み込まれた楽器とアプリケーション設定による楽器情報.
+ */
+public final class DLSInstCatalog implements IInstCatalog {
+	private final MabiDLS dls;
+	private final MabiIccoProperties appProperties;
+
+	public DLSInstCatalog(MabiDLS dls, MabiIccoProperties appProperties) {
+		this.dls = dls;
+		this.appProperties = appProperties;
+	}
+
+	private InstType getType(int program) {
+		InstClass inst = dls.getInstByProgram(program);
+		return (inst != null) ? inst.getType() : InstType.NONE;
+	}
+
+	@Override
+	public boolean isAvailable(int program) {
+		return dls.getInstByProgram(program) != null;
+	}
+
+	@Override
+	public boolean[] getEnablePart(int program) {
+		return InstClass.getEnablePartByProgram(program);
+	}
+
+	@Override
+	public boolean isSongOnly(int program) {
+		InstType type = getType(program);
+		return (type == InstType.VOICE) || (type == InstType.CHORUS);
+	}
+
+	@Override
+	public boolean allowTempoChordPart(int program) {
+		InstClass inst = dls.getInstByProgram(program);
+		return (inst == null) || inst.getType().allowTempoChordPart();
+	}
+
+	@Override
+	public boolean percussionMotionFix(int program) {
+		if (appProperties.percussionMotionFix.get()) {
+			InstType type = getType(program);
+			return (type == InstType.KPUR) || (type == InstType.PERCUSSION);
+		}
+		return false;
+	}
+
+	@Override
+	public int getDrumProgram() {
+		if (appProperties.soundEnv.get().useDLS()) {
+			InstClass[] insts = dls.getAvailableInstByInstType(List.of(InstType.DRUMS));
+			if (insts.length > 0) {
+				return insts[0].getProgram();
+			}
+		}
+		return -1;
+	}
+}
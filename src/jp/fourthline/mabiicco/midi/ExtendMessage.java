@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2021-2024 たんらる
+ * Copyright (C) 2021-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.midi;
@@ -32,6 +32,18 @@ public final class ExtendMessage extends ShortMessage {
 		return this.channel;
 	}
 
+	/**
+	 * 時刻付きで送信したメッセージはシンセサイザ内で複製されるため, 拡張チャンネルを保持して複製する.
+	 */
+	@Override
+	public Object clone() {
+		try {
+			return new ExtendMessage(getCommand(), channel, getData1(), getData2());
+		} catch (InvalidMidiDataException e) {
+			throw new AssertionError(e);
+		}
+	}
+
 	/**
 	 * ExtendMessage以外を使わないようにするレシーバのラッパ.
 	 */
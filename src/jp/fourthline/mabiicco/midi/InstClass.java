@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2023 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.midi;
@@ -23,6 +23,7 @@ import com.sun.media.sound.DLSInstrument;
 import com.sun.media.sound.DLSRegion;
 
 import jp.fourthline.mabiicco.MabiIccoProperties;
+import jp.fourthline.mmlTools.IInstCatalog;
 import jp.fourthline.mmlTools.core.ResourceLoader;
 import jp.fourthline.mmlTools.parser.MMLEventParser;
 
@@ -51,7 +52,7 @@ public final class InstClass {
 
 	public static boolean debug = false;
 
-	public static int DRUM = 0x100;
+	public static final int DRUM = IInstCatalog.DRUM;
 	private static int logicalProgramNum(Instrument inst) {
 		if (inst == null) {
 			throw new IllegalArgumentException("inst is null");
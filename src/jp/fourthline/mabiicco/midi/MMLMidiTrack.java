@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2014-2023 たんらる
+ * Copyright (C) 2014-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.midi;
@@ -8,29 +8,48 @@ import static jp.fourthline.mabiicco.AppResource.appText;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 import jp.fourthline.mabiicco.MabiIccoProperties;
 import jp.fourthline.mabiicco.ui.SettingButtonGroupItem;
+import jp.fourthline.mmlTools.MMLNoteArray;
 import jp.fourthline.mmlTools.MMLNoteEvent;
 
 /**
  * 複数のMMLNoteEventリストから, MIDIトラック用リストに変換する.
  *   マビノギ内の演奏とは若干ちがうけど！（気にしない
  *   TODO: 再生方式の完全な変更が必要.
+ * ノートは MMLNoteArray に複写して保持し, 元のノートを clone しない.
+ * 追加したパートは {@link #getNoteArray()} の時点で, tickOffset順に1回の走査でマージする.
+ * 同じtickOffsetのノートは先に追加したパートを前に並べる.
  */
 public final class MMLMidiTrack {
 	private final InstClass inst;
-	private final ArrayList<MMLNoteEvent> noteEventList;
+	private MMLNoteArray noteArray;
+	private final ArrayList<Part> parts = new ArrayList<>();
 	private int attackDelayCorrect = 0;
-	private final OverlapMode overlapMode = MabiIccoProperties.getInstance().overlapMode.get();
+	private final OverlapMode overlapMode;
 
 	public MMLMidiTrack(InstClass inst) {
+		this(inst, MabiIccoProperties.getInstance().overlapMode.get());
+	}
+
+	MMLMidiTrack(InstClass inst, OverlapMode overlapMode) {
 		this.inst = inst;
-		noteEventList = new ArrayList<>();
+		this.overlapMode = overlapMode;
+		noteArray = new MMLNoteArray();
 	}
 
+	/**
+	 * @return 変換後のノートリスト. 要素は参照のたびに生成される.
+	 */
 	public List<MMLNoteEvent> getNoteEventList() {
-		return noteEventList;
+		return getNoteArray().asList();
+	}
+
+	public MMLNoteArray getNoteArray() {
+		merge();
+		return noteArray;
 	}
 
 	public void setAttackDelayCorrect(int attackDelayCorrect) {
@@ -38,45 +57,244 @@ public final class MMLMidiTrack {
 	}
 
 	public void clear() {
-		noteEventList.clear();
+		parts.clear();
+		noteArray.clear();
 	}
 
+	/**
+	 * パートのノートリストを追加する. 現在のアタック遅延補正を適用する.
+	 * リストは変換まで参照するので, {@link #getNoteArray()} までは変更しないこと.
+	 * @param list tickOffset順のノートリスト
+	 */
 	public void add(List<MMLNoteEvent> list) {
-		for (MMLNoteEvent noteEvent : list) {
-			addItem(noteEvent.clone());
+		if (!list.isEmpty()) {
+			parts.add(new ListPart((list instanceof RandomAccess) ? list : new ArrayList<>(list), attackDelayCorrect));
 		}
 	}
 
-	private void addItem(MMLNoteEvent addEvent) {
-		int targetTick = addEvent.getTickOffset();
-		int targetIndex = 0;
-
-		// アタック遅延補正分
-		if (attackDelayCorrect != 0) {
-			targetTick += attackDelayCorrect;
-			if (targetTick < 0) {
-				int tick = addEvent.getTick() + targetTick;
-				if (tick <= 0) return;
-				targetTick = 0;
-				addEvent.setTick(tick);
+	/**
+	 * マージ元のノート列. cursor は次にマージするノートの位置.
+	 */
+	private abstract static class Part {
+		final int size;
+		int cursor = 0;
+
+		Part(int size) {
+			this.size = size;
+		}
+
+		abstract int getTickOffset(int index);
+		abstract int getTick(int index);
+		abstract int getNote(int index);
+		abstract void copyTo(MMLNoteArray out, int outIndex, int index, int tickOffset, int tick);
+
+		boolean isValid(int index) {
+			return true;
+		}
+
+		/**
+		 * 追加しないノートを読み飛ばす.
+		 * @return マージするノートが残っている場合は true.
+		 */
+		boolean skip() {
+			while ( (cursor < size) && (!isValid(cursor)) ) {
+				cursor++;
 			}
-			addEvent.setTickOffset(targetTick);
+			return cursor < size;
 		}
+	}
 
-		for (MMLNoteEvent noteEvent : noteEventList) {
-			if (noteEvent.getTickOffset() > targetTick) {
-				break;
+	/**
+	 * アタック遅延補正を適用したノートリスト
+	 */
+	private static final class ListPart extends Part {
+		private final List<MMLNoteEvent> list;
+		private final int attackDelayCorrect;
+
+		private ListPart(List<MMLNoteEvent> list, int attackDelayCorrect) {
+			super(list.size());
+			this.list = list;
+			this.attackDelayCorrect = attackDelayCorrect;
+		}
+
+		private int correctTick(int index) {
+			return list.get(index).getTickOffset() + attackDelayCorrect;
+		}
+
+		@Override
+		int getTickOffset(int index) {
+			int targetTick = list.get(index).getTickOffset();
+			if (attackDelayCorrect != 0) {
+				targetTick = Math.max(targetTick + attackDelayCorrect, 0);
 			}
-			targetIndex++;
-			if ( (noteEvent.getTickOffset() == targetTick) && (noteEvent.getNote() == addEvent.getNote())) {
+			return targetTick;
+		}
+
+		@Override
+		int getTick(int index) {
+			int tick = list.get(index).getTick();
+			if (attackDelayCorrect != 0) {
+				int targetTick = correctTick(index);
+				if (targetTick < 0) {
+					tick += targetTick;
+				}
+			}
+			return tick;
+		}
+
+		@Override
+		boolean isValid(int index) {
+			// アタック遅延補正で先頭より前になる部分は削り, 残らない場合は追加しない.
+			return (attackDelayCorrect == 0) || (correctTick(index) >= 0) || (getTick(index) > 0);
+		}
+
+		@Override
+		int getNote(int index) {
+			return list.get(index).getNote();
+		}
+
+		@Override
+		void copyTo(MMLNoteArray out, int outIndex, int index, int tickOffset, int tick) {
+			out.add(outIndex, list.get(index), tickOffset, tick);
+		}
+	}
+
+	/**
+	 * 変換済みのノート列
+	 */
+	private static final class ArrayPart extends Part {
+		private final MMLNoteArray array;
+
+		private ArrayPart(MMLNoteArray array) {
+			super(array.size());
+			this.array = array;
+		}
+
+		@Override
+		int getTickOffset(int index) {
+			return array.getTickOffset(index);
+		}
+
+		@Override
+		int getTick(int index) {
+			return array.getTick(index);
+		}
+
+		@Override
+		int getNote(int index) {
+			return array.getNote(index);
+		}
+
+		@Override
+		void copyTo(MMLNoteArray out, int outIndex, int index, int tickOffset, int tick) {
+			out.add(outIndex, array, index, tickOffset, tick);
+		}
+	}
+
+	/**
+	 * 追加したパートをマージする. 変換済みのノート列がある場合は, 最初のパートとして扱う.
+	 */
+	private void merge() {
+		if (parts.isEmpty()) {
+			return;
+		}
+		int total = noteArray.size();
+		for (Part part : parts) {
+			total += part.size;
+		}
+		if (!noteArray.isEmpty()) {
+			parts.add(0, new ArrayPart(noteArray));
+		}
+
+		var out = new MMLNoteArray(total);
+		int groupStart = 0;
+		int groupTick = Integer.MIN_VALUE;
+		while (true) {
+			// tickOffsetが最小のノート, 同じ場合は先に追加したパートを選ぶ.
+			int partIndex = -1;
+			int targetTick = 0;
+			for (int i = 0; i < parts.size(); i++) {
+				Part part = parts.get(i);
+				if ( part.skip() && ((partIndex < 0) || (part.getTickOffset(part.cursor) < targetTick)) ) {
+					partIndex = i;
+					targetTick = part.getTickOffset(part.cursor);
+				}
+			}
+			if (partIndex < 0) {
 				break;
 			}
+
+			Part part = parts.get(partIndex);
+			int index = part.cursor++;
+			int tick = part.getTick(index);
+			int note = part.getNote(index);
+			if (targetTick != groupTick) {
+				groupStart = out.size();
+				groupTick = targetTick;
+			}
+
+			// 変換済みのノートはそのまま並べる.
+			int outIndex = out.size();
+			if (!(part instanceof ArrayPart)) {
+				int sameIndex = indexOfNote(out, groupStart, note);
+				if (overlapMode.isOverlap(inst, note)) {
+					if (sameIndex >= 0) {
+						outIndex = sameIndex + 1;
+					}
+				} else if (sameIndex >= 0) {
+					// 前の音との重複修正
+					/* 音量はテンポの有無でどちらかのノートの設定になるが対応しない */
+					if (out.getTick(sameIndex) >= tick) {
+						out.setTick(sameIndex, tick);
+					}
+					continue;
+				} else {
+					tick = trimNextNote(partIndex, note, targetTick, tick);
+				}
+			}
+			if (tick >= 0) {
+				part.copyTo(out, outIndex, index, targetTick, tick);
+			}
 		}
 
-		addEvent = overlapNote(targetIndex, addEvent);
-		if (addEvent != null) {
-			noteEventList.add(targetIndex, addEvent);
+		parts.clear();
+		noteArray = out;
+	}
+
+	/**
+	 * @return 同じtickOffsetのノートの中で, 最初に追加した同じ音のノートの位置. ない場合は -1.
+	 */
+	private static int indexOfNote(MMLNoteArray out, int groupStart, int note) {
+		int size = out.size();
+		for (int i = groupStart; i < size; i++) {
+			if (out.getNote(i) == note) {
+				return i;
+			}
 		}
+		return -1;
+	}
+
+	/**
+	 * 後ろの音との重複修正. 対象は先に追加したパートの, 次のtickOffsetのノート.
+	 * @return 重複を修正したノートのtick
+	 */
+	private int trimNextNote(int partIndex, int note, int targetTick, int tick) {
+		Part next = null;
+		int nextTick = 0;
+		for (int i = 0; i < partIndex; i++) {
+			Part part = parts.get(i);
+			if ( part.skip() && ((next == null) || (part.getTickOffset(part.cursor) < nextTick)) ) {
+				next = part;
+				nextTick = part.getTickOffset(part.cursor);
+			}
+		}
+		if ( (next != null) && (next.getNote(next.cursor) == note) ) {
+			int tickOverlap = targetTick + tick - nextTick;
+			if (tickOverlap > 0) {
+				tick -= tickOverlap;
+			}
+		}
+		return tick;
 	}
 
 	public enum OverlapMode implements SettingButtonGroupItem {
@@ -111,65 +329,4 @@ public final class MMLMidiTrack {
 
 		public abstract boolean isOverlap(InstClass inst, int note);
 	}
-
-	private MMLNoteEvent overlapNote(int targetIndex, MMLNoteEvent addEvent) {
-		if (overlapMode.isOverlap(inst, addEvent.getNote())) {
-			return addEvent;
-		}
-
-		int targetTick = addEvent.getTickOffset();
-
-		// 前の音との重複修正
-		if ( targetIndex > 0 ) {
-			MMLNoteEvent prevEvent = noteEventList.get( targetIndex - 1 );
-			if (addEvent.getNote() == prevEvent.getNote()) {
-				if ( prevEvent.getTickOffset() == targetTick ) {
-					/* 音量はテンポの有無でどちらかのノートの設定になるが対応しない */
-					if (prevEvent.getTick() >= addEvent.getTick()) {
-						noteEventList.get(targetIndex-1).setTick(addEvent.getTick());
-					}
-					return null;
-
-					// 2021/09/18 テンポを和音出力し、ゲーム内の鳴り方もかわったようなので以下コードは使用しない
-					// 開始位置が同じときには, 後発音で更新する.
-					// 前の音とテンポ指定がある場合は元あったノートのまま.
-					// 後発音が V0 の場合は l64音に更新する.
-//					if (!MMLTempoEvent.searchEqualsTick(tempoList, targetTick)) {
-//						if (addEvent.getVelocity() == 0) {
-//							prevEvent.setTick(MMLTicks.minimumTick());
-//						}
-//						return null;
-//					} else {
-//						if (prevEvent.getVelocity() == 0) {
-//							addEvent.setTick(MMLTicks.minimumTick());
-//						}
-//						targetIndex--;
-//						noteEventList.remove(targetIndex);
-//					}
-//				} else {
-//					trimOverlapNote(prevEvent, addEvent);
-				}
-			}
-		}
-
-		// 後ろの音との重複修正
-		if ( targetIndex < noteEventList.size() ) {
-			MMLNoteEvent nextEvent = noteEventList.get( targetIndex );
-			trimOverlapNote(addEvent, nextEvent);
-		}
-
-		return addEvent;
-	}
-
-	private void trimOverlapNote(MMLNoteEvent note1, MMLNoteEvent note2) {
-		if (note1.getTickOffset() >= note2.getTickOffset()) {
-			new AssertionError();
-		}
-		if (note1.getNote() == note2.getNote()) {
-			int tickOverlap = note1.getEndTick() - note2.getTickOffset();
-			if (tickOverlap > 0) {
-				note1.setTick( note1.getTick() - tickOverlap );
-			}
-		}
-	}
 }
@@ -11,9 +11,12 @@ import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import javax.sound.midi.*;
@@ -24,6 +27,7 @@ import com.sun.media.sound.SoftSynthesizer;
 import jp.fourthline.mabiicco.AppErrorHandler;
 import jp.fourthline.mabiicco.MabiIccoProperties;
 import jp.fourthline.mmlTools.MMLEventList;
+import jp.fourthline.mmlTools.MMLNoteArray;
 import jp.fourthline.mmlTools.MMLNoteEvent;
 import jp.fourthline.mmlTools.MMLScore;
 import jp.fourthline.mmlTools.MMLTempoEvent;
@@ -45,6 +49,8 @@ public final class MabiDLS {
 	private static final int NUM_CHANNEL_ON_TRACK = 4;
 	private static final int MAX_MIDI_PART = MMLScore.MAX_TRACK * NUM_CHANNEL_ON_TRACK;
 	private final ArrayList<InstClass> insts = new ArrayList<>();
+	/** program番号から楽器を引く索引. insts を変更したら {@link #updateInstIndex()} で更新する. */
+	private volatile InstClass[] instIndex = new InstClass[0];
 	private final Map<File, List<InstClass>> instsMap = new TreeMap<>();
 	public static final int DLS_BANK = (0x79 << 7);
 	public static final int DRUM_BANK = (0x78 << 7);
@@ -60,6 +66,9 @@ public final class MabiDLS {
 	private final boolean[] muteState = new boolean[ MMLScore.MAX_TRACK ];
 	private WavoutDataLine wavout;
 	private boolean allLoaded = false;
+	private final PlaySequenceCache playSequenceCache = new PlaySequenceCache();
+	/** 再生用のシンセサイザに読み込み済みの楽器 */
+	private final Set<InstClass> loadedInsts = Collections.newSetFromMap(new IdentityHashMap<>());
 
 	public static MabiDLS getInstance() {
 		if (instance == null) {
@@ -75,12 +84,7 @@ public final class MabiDLS {
 	 */
 	public void initializeMIDI() throws MidiUnavailableException, InvalidMidiDataException, IOException, LineUnavailableException {
 		this.synthesizer = MidiSystem.getSynthesizer();
-		HashMap<String, Object> info = new HashMap<>();
-		info.put("midi channels", MAX_MIDI_PART);
-		info.put("large mode", "true");
-		//		info.put("load default soundbank", "false");
-		info.put("max polyphony", "256");
-		((SoftSynthesizer)this.synthesizer).open(wavout = new WavoutDataLine(), info);
+		((SoftSynthesizer)this.synthesizer).open(wavout = new WavoutDataLine(), synthesizerInfo());
 		addTrackEndNotifier(() -> wavout.stopRec());
 
 		long latency = this.synthesizer.getLatency();
@@ -112,6 +116,15 @@ public final class MabiDLS {
 		transmitter.setReceiver(new ExtendMessage.ExtendReceiver(this.synthesizer.getReceiver(), MAX_MIDI_PART));
 	}
 
+	private static Map<String, Object> synthesizerInfo() {
+		HashMap<String, Object> info = new HashMap<>();
+		info.put("midi channels", MAX_MIDI_PART);
+		info.put("large mode", "true");
+		//		info.put("load default soundbank", "false");
+		info.put("max polyphony", "256");
+		return info;
+	}
+
 	// ループ再生時にも使用するパラメータ.
 	private boolean loop = false;
 	private long startTick;
@@ -144,7 +157,7 @@ public final class MabiDLS {
 		try {
 			MabiDLS.getInstance().loadRequiredInstruments(mmlScore);
 			Sequencer sequencer = MabiDLS.getInstance().getSequencer();
-			Sequence sequence = createSequenceOnSepChannel(mmlScore);
+			Sequence sequence = createPlaySequence(mmlScore);
 			sequencer.setSequence(sequence);
 			this.startTick = startTick;
 			this.startTempo = mmlScore.getTempoOnTick(startTick);
@@ -169,6 +182,44 @@ public final class MabiDLS {
 		sequencer.stop();
 	}
 
+	/**
+	 * 再生用とは別のシンセサイザで, 実時間を待たずにwav出力するレンダラーを作成する.
+	 * 音色, パンポット, 音量, ミュートは再生時と同じ設定にする.
+	 * @param mmlScore 出力するMMLScore
+	 * @return {@link WavRenderer#render(File)} で出力する.
+	 * @throws InvalidMidiDataException
+	 * @throws MidiUnavailableException
+	 */
+	public WavRenderer createWavRenderer(MMLScore mmlScore) throws InvalidMidiDataException, MidiUnavailableException {
+		return createWavRenderer(mmlScore, -1);
+	}
+
+	/**
+	 * 指定したトラックのみを出力するレンダラーを作成する. トラックを指定した場合はミュート設定に関わらず出力する.
+	 * @param mmlScore   出力するMMLScore
+	 * @param trackIndex 出力するトラック. -1 の場合は全トラック.
+	 * @return {@link WavRenderer#render(File)} で出力する.
+	 * @throws InvalidMidiDataException
+	 * @throws MidiUnavailableException
+	 */
+	public WavRenderer createWavRenderer(MMLScore mmlScore, int trackIndex) throws InvalidMidiDataException, MidiUnavailableException {
+		Sequence sequence = createSequenceOnSepChannel(mmlScore, trackIndex);
+		var renderer = new WavRenderer(sequence, mmlScore.getTempoOnTick(0), synthesizerInfo());
+		var synth = renderer.getSynthesizer();
+		unloadDefaultInstruments(synth);
+		var trackList = (trackIndex < 0) ? mmlScore.getTrackList() : List.of(mmlScore.getTrack(trackIndex));
+		for (InstClass inst : requiredInstruments(trackList)) {
+			synth.loadInstrument(inst.getInstrument());
+		}
+		MidiChannel[] channels = renderer.getChannels();
+		initializeChannels(channels);
+		updateMidiControl(channels, mmlScore);
+		if (trackIndex < 0) {
+			midiSetMuteState(channels);
+		}
+		return renderer;
+	}
+
 	public void allNoteOff() {
 		for (MidiChannel ch : this.channel) {
 			ch.allNotesOff();
@@ -203,6 +254,7 @@ public final class MabiDLS {
 		} catch (MidiUnavailableException e) {
 			e.printStackTrace();
 		}
+		updateInstIndex();
 
 		for (var inst : insts) {
 			this.synthesizer.loadInstrument(inst.getInstrument());
@@ -236,6 +288,7 @@ public final class MabiDLS {
 					}
 				}
 				instsMap.put(file, addList);
+				updateInstIndex();
 			}
 		}
 	}
@@ -249,8 +302,11 @@ public final class MabiDLS {
 			return;
 		}
 
+		loadRequiredInstruments(requiredInstruments(new ArrayList<>(score.getTrackList())));
+	}
+
+	private List<InstClass> requiredInstruments(List<MMLTrack> trackList) {
 		ArrayList<InstClass> requiredInsts = new ArrayList<>();
-		ArrayList<MMLTrack> trackList = new ArrayList<>(score.getTrackList());
 		for (MMLTrack track : trackList) {
 			InstClass inst1 = getInstByProgram( track.getProgram() );
 			InstClass inst2 = getInstByProgram( track.getSongProgram() );
@@ -261,11 +317,15 @@ public final class MabiDLS {
 				requiredInsts.add(inst2);
 			}
 		}
-
-		loadRequiredInstruments(requiredInsts);
+		return requiredInsts;
 	}
 
 	public synchronized void loadRequiredInstruments(List<InstClass> requiredInsts) {
+		// 読み込み済みの楽器のみの場合は, シンセサイザへの問い合わせを省略する.
+		if (loadedInsts.containsAll(requiredInsts)) {
+			return;
+		}
+
 		// load required Instruments
 		List<Instrument> loadedList = Arrays.asList(synthesizer.getLoadedInstruments());
 		for (InstClass inst : requiredInsts) {
@@ -274,6 +334,7 @@ public final class MabiDLS {
 				if (!loadedList.contains(instrument)) {
 					synthesizer.loadInstrument(instrument);
 				}
+				loadedInsts.add(inst);
 			} catch (OutOfMemoryError e) {
 				AppErrorHandler.getInstance().exec();
 				System.exit(1);
@@ -295,7 +356,14 @@ public final class MabiDLS {
 			this.playNoteList.add(new MMLNoteEvent[MAX_CHANNEL_PLAY_NOTE]);
 		}
 
-		for (MidiChannel ch : this.channel) {
+		initializeChannels(this.channel);
+		unloadDefaultInstruments(this.synthesizer);
+
+		all();
+	}
+
+	private static void initializeChannels(MidiChannel[] channels) {
+		for (MidiChannel ch : channels) {
 			ch.programChange(DLS_BANK, 0);
 
 			/* ctrl 91 汎用エフェクト 1(リバーブ) */
@@ -304,9 +372,13 @@ public final class MabiDLS {
 			// sustain off
 			ch.controlChange(64, 0);
 		}
+	}
 
-		// デフォルトSoundBankのドラム以外をアンロードする.
-		var sb = this.synthesizer.getDefaultSoundbank();
+	/**
+	 * デフォルトSoundBankのドラム以外をアンロードする.
+	 */
+	private static void unloadDefaultInstruments(Synthesizer synthesizer) {
+		var sb = synthesizer.getDefaultSoundbank();
 		var list = new ArrayList<Patch>();
 		for (var inst : sb.getInstruments()) {
 			var p = inst.getPatch();
@@ -316,9 +388,7 @@ public final class MabiDLS {
 				}
 			}
 		}
-		this.synthesizer.unloadInstruments(sb, list.toArray(Patch[]::new));
-
-		all();
+		synthesizer.unloadInstruments(sb, list.toArray(Patch[]::new));
 	}
 
 	public List<InstClass> getAllInst() {
@@ -331,14 +401,30 @@ public final class MabiDLS {
 				.toArray(size -> new InstClass[size]);
 	}
 
-	public InstClass getInstByProgram(int program) {
+	/**
+	 * program番号の索引を作成する. 同じprogram番号の楽器は先に読み込んだものを使用する.
+	 */
+	private void updateInstIndex() {
+		int max = -1;
+		for (InstClass inst : insts) {
+			max = Math.max(max, inst.getProgram());
+		}
+		var index = new InstClass[max + 1];
 		for (InstClass inst : insts) {
-			if (inst.getProgram() == program) {
-				return inst;
+			int program = inst.getProgram();
+			if ((program >= 0) && (index[program] == null)) {
+				index[program] = inst;
 			}
 		}
+		instIndex = index;
+	}
 
-		return null;
+	public InstClass getInstByProgram(int program) {
+		var index = instIndex;
+		if ((program < 0) || (program >= index.length)) {
+			return null;
+		}
+		return index[program];
 	}
 
 	/**
@@ -442,7 +528,7 @@ public final class MabiDLS {
 		return ret;
 	}
 
-	private void changeProgram(int trackIndex, int program, int songProgram) {
+	private void changeProgram(MidiChannel[] channel, int trackIndex, int program, int songProgram) {
 		int bank = DLS_BANK;
 
 		if ((program & InstClass.DRUM) != 0) {
@@ -467,9 +553,7 @@ public final class MabiDLS {
 			throw new IllegalArgumentException("trackIndex: " + trackIndex);
 		}
 
-		for (int i = getChannel(trackIndex, 0); i < getChannel(trackIndex+1, 0); i++) {
-			channel[i].controlChange(10, panpot);
-		}
+		controlChangeOnTrack(this.channel, trackIndex, 10, panpot);
 	}
 
 	/**
@@ -482,8 +566,12 @@ public final class MabiDLS {
 			throw new IllegalArgumentException("trackIndex: " + trackIndex);
 		}
 
+		controlChangeOnTrack(this.channel, trackIndex, 7, volume);
+	}
+
+	private void controlChangeOnTrack(MidiChannel[] channel, int trackIndex, int controller, int value) {
 		for (int i = getChannel(trackIndex, 0); i < getChannel(trackIndex+1, 0); i++) {
-			channel[i].controlChange(7, volume);
+			channel[i].controlChange(controller, value);
 		}
 	}
 
@@ -532,6 +620,10 @@ public final class MabiDLS {
 
 	/** MIDIにMuteStateを反映する. */
 	private void midiSetMuteState() {
+		midiSetMuteState(this.channel);
+	}
+
+	private void midiSetMuteState(MidiChannel[] channel) {
 		for (int i = 0; i < muteState.length; i++) {
 			for (int chIndex = getChannel(i, 0); chIndex < getChannel(i+1, 0); chIndex++) {
 				channel[chIndex].setMute(muteState[i]);
@@ -540,11 +632,15 @@ public final class MabiDLS {
 	}
 
 	public void updateMidiControl(MMLScore score) {
+		updateMidiControl(this.channel, score);
+	}
+
+	private void updateMidiControl(MidiChannel[] channels, MMLScore score) {
 		int trackCount = 0;
 		for (MMLTrack mmlTrack : score.getTrackList()) {
-			this.setTrackPanpot(trackCount, mmlTrack.getPanpot());
-			this.setTrackVolume(trackCount, mmlTrack.getVolume());
-			this.changeProgram(trackCount, mmlTrack.getProgram(), mmlTrack.getSongProgram());
+			controlChangeOnTrack(channels, trackCount, 10, mmlTrack.getPanpot());
+			controlChangeOnTrack(channels, trackCount, 7, mmlTrack.getVolume());
+			changeProgram(channels, trackCount, mmlTrack.getProgram(), mmlTrack.getSongProgram());
 			trackCount++;
 		}
 	}
@@ -621,38 +717,32 @@ public final class MabiDLS {
 	 * @throws InvalidMidiDataException
 	 */
 	public Sequence createSequenceOnSepChannel(MMLScore score) throws InvalidMidiDataException {
-		Sequence sequence = new Sequence(Sequence.PPQ, MMLTickTable.TPQN);
-		int totalTick = score.getTotalTickLength();
-		Track track = sequence.createTrack();
+		return createSequenceOnSepChannel(score, -1);
+	}
 
-		// グローバルテンポ
-		List<MMLTempoEvent> globalTempoList = score.getTempoEventList();
-		for (MMLTempoEvent tempoEvent : globalTempoList) {
-			byte[] tempo = tempoEvent.getMetaData();
-			int tickOffset = tempoEvent.getTickOffset();
-			if (tickOffset >= totalTick) {
-				break;
-			}
-			track.add(new MidiEvent(new MetaMessage(MMLTempoEvent.META, tempo, tempo.length), tickOffset));
-		}
+	/**
+	 * 指定したトラックのパートを単独チャンネルで鳴らすシーケンスを作成する. チャンネルは全トラックの場合と同じものを使用する.
+	 * @param score
+	 * @param targetTrack 対象のトラック. -1 の場合は全トラック.
+	 * @return
+	 * @throws InvalidMidiDataException
+	 */
+	private Sequence createSequenceOnSepChannel(MMLScore score, int targetTrack) throws InvalidMidiDataException {
+		Sequence sequence = new Sequence(Sequence.PPQ, MMLTickTable.TPQN);
+		addTempoEvents(sequence.createTrack(), score);
 
 		int trackIndex = 0;
 		for (MMLTrack mmlTrack : score.getTrackList()) {
 			for (int i = 0; i < NUM_CHANNEL_ON_TRACK; i++) {
-				int program = mmlTrack.getProgram();
-				if ((i == CHORUS_INDEX) && (mmlTrack.getSongProgram() >= 0)) {
-					program = mmlTrack.getSongProgram();
+				if ((targetTrack >= 0) && (targetTrack != trackIndex)) {
+					break;
 				}
+				int program = partProgram(mmlTrack, i);
 				boolean[] enablePart = InstClass.getEnablePartByProgram(program);
 				if (enablePart[i]) {
 					var eventList = mmlTrack.getMMLEventAtIndex(i).getMMLNoteEventList();
 					if (eventList.size() > 0) {
-						int channel = getChannel(trackIndex, i);
-						var instClass = getInstByProgram(program);
-						MMLMidiTrack midiTrack = new MMLMidiTrack(instClass);
-						midiTrack.setAttackDelayCorrect(mmlTrack.getAttackDelayCorrect(i));
-						midiTrack.add(eventList);
-						convertMidiPart(sequence.createTrack(), midiTrack.getNoteEventList(), channel, instClass, 1, true);
+						convertSepChannelPart(sequence.createTrack(), eventList, getChannel(trackIndex, i), getInstByProgram(program), mmlTrack.getAttackDelayCorrect(i));
 					}
 				}
 			}
@@ -662,6 +752,79 @@ public final class MabiDLS {
 		return sequence;
 	}
 
+	/**
+	 * 再生用に, 全パートを単独チャンネルで鳴らすシーケンスを作成する.
+	 * 前回の再生から変更のないパートは, 前回作成したMIDIトラックを使用する.
+	 * @param score
+	 * @return
+	 * @throws InvalidMidiDataException
+	 */
+	private Sequence createPlaySequence(MMLScore score) throws InvalidMidiDataException {
+		synchronized (playSequenceCache) {
+			playSequenceCache.begin();
+			int totalTick = score.getTotalTickLength();
+			playSequenceCache.add(PlaySequenceCache.TEMPO_KEY, PlaySequenceCache.tempoFingerprint(score.getTempoEventList(), totalTick),
+					track -> addTempoEvents(track, score));
+
+			int overlapMode = MabiIccoProperties.getInstance().overlapMode.get().ordinal();
+			int trackIndex = 0;
+			for (MMLTrack mmlTrack : score.getTrackList()) {
+				for (int i = 0; i < NUM_CHANNEL_ON_TRACK; i++) {
+					int program = partProgram(mmlTrack, i);
+					boolean[] enablePart = InstClass.getEnablePartByProgram(program);
+					if (enablePart[i]) {
+						var eventList = mmlTrack.getMMLEventAtIndex(i).getMMLNoteEventList();
+						if (eventList.size() > 0) {
+							int channel = getChannel(trackIndex, i);
+							var instClass = getInstByProgram(program);
+							int attackDelayCorrect = mmlTrack.getAttackDelayCorrect(i);
+							long fingerprint = PlaySequenceCache.fingerprint(eventList, program, System.identityHashCode(instClass), attackDelayCorrect, overlapMode);
+							playSequenceCache.add(channel, fingerprint,
+									track -> convertSepChannelPart(track, eventList, channel, instClass, attackDelayCorrect));
+						}
+					}
+				}
+				trackIndex++;
+			}
+
+			return playSequenceCache.end();
+		}
+	}
+
+	private static int partProgram(MMLTrack mmlTrack, int partIndex) {
+		int program = mmlTrack.getProgram();
+		if ((partIndex == CHORUS_INDEX) && (mmlTrack.getSongProgram() >= 0)) {
+			program = mmlTrack.getSongProgram();
+		}
+		return program;
+	}
+
+	/**
+	 * グローバルテンポをMIDIトラックに追加する.
+	 */
+	private static void addTempoEvents(Track track, MMLScore score) throws InvalidMidiDataException {
+		int totalTick = score.getTotalTickLength();
+		List<MMLTempoEvent> globalTempoList = score.getTempoEventList();
+		for (MMLTempoEvent tempoEvent : globalTempoList) {
+			byte[] tempo = tempoEvent.getMetaData();
+			int tickOffset = tempoEvent.getTickOffset();
+			if (tickOffset >= totalTick) {
+				break;
+			}
+			track.add(new MidiEvent(new MetaMessage(MMLTempoEvent.META, tempo, tempo.length), tickOffset));
+		}
+	}
+
+	/**
+	 * 1つのパートを単独チャンネルのMIDIトラックに変換する.
+	 */
+	private void convertSepChannelPart(Track track, List<MMLNoteEvent> eventList, int channel, InstClass instClass, int attackDelayCorrect) throws InvalidMidiDataException {
+		MMLMidiTrack midiTrack = new MMLMidiTrack(instClass);
+		midiTrack.setAttackDelayCorrect(attackDelayCorrect);
+		midiTrack.add(eventList);
+		convertMidiPart(track, midiTrack.getNoteArray(), channel, instClass, 1, true);
+	}
+
 	/**
 	 * トラックに含まれるすべてのMMLEventListを1つのMIDIトラックに変換します.
 	 * @param track
@@ -688,10 +851,10 @@ public final class MabiDLS {
 				midiTrack.add(eventList.getMMLNoteEventList());
 			}
 		}
-		convertMidiPart(track, midiTrack.getNoteEventList(), channel, instClass, startOffset, withMute);
+		convertMidiPart(track, midiTrack.getNoteArray(), channel, instClass, startOffset, withMute);
 	}
 
-	private void convertMidiPart(Track track, List<MMLNoteEvent> eventList, int channel, InstClass inst, int startOffset, boolean withMute) throws InvalidMidiDataException {
+	private void convertMidiPart(Track track, MMLNoteArray noteArray, int channel, InstClass inst, int startOffset, boolean withMute) throws InvalidMidiDataException {
 		int velocity = MMLNoteEvent.INIT_VOL;
 		int targetProgram = inst.getProgram();
 
@@ -703,18 +866,19 @@ public final class MabiDLS {
 		track.add(new MidiEvent(pcMessage, 0));
 
 		// Noteイベントの変換
-		for ( MMLNoteEvent noteEvent : eventList ) {
-			if (withMute && noteEvent.isMute()) {
+		int size = noteArray.size();
+		for (int i = 0; i < size; i++) {
+			if (withMute && noteArray.isMute(i)) {
 				continue;
 			}
-			int note = noteEvent.getNote();
-			int tick = noteEvent.getTick();
-			int tickOffset = noteEvent.getTickOffset() + startOffset;
+			int note = noteArray.getNote(i);
+			int tick = noteArray.getTick(i);
+			int tickOffset = noteArray.getTickOffset(i) + startOffset;
 			int endTickOffset = tickOffset + tick - startOffset;
 
 			// ボリュームの変更
-			if (noteEvent.getVelocity() >= 0) {
-				velocity = convertVelocityOnAtt(inst, note, noteEvent.getVelocity());
+			if (noteArray.getVelocity(i) >= 0) {
+				velocity = convertVelocityOnAtt(inst, note, noteArray.getVelocity(i));
 			}
 
 			try {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.Track;
+
+import jp.fourthline.mmlTools.MMLNoteEvent;
+import jp.fourthline.mmlTools.MMLTempoEvent;
+import jp.fourthline.mmlTools.core.MMLTickTable;
+
+/**
+ * 再生用シーケンスのMIDIトラックを, パートごとに保持する.
+ * <p>
+ * 再生のたびに新しい {@link Sequence} を作成するが, 前回の再生から内容 (ノート, 楽器, アタック遅延補正など) の
+ * フィンガープリントが変わっていないパートは前回作成したMIDIトラックをそのまま使用する.
+ * 作成済みのMIDIトラックは変更しないので, 再生中のシーケンスと共有しても問題ない.
+ * </p>
+ */
+final class PlaySequenceCache {
+	/** テンポトラックのキー */
+	static final int TEMPO_KEY = -1;
+
+	/**
+	 * MIDIトラックを作成する.
+	 */
+	interface ITrackBuilder {
+		void build(Track track) throws InvalidMidiDataException;
+	}
+
+	/**
+	 * 作成済みのMIDIトラックを追加できるシーケンス.
+	 */
+	private static final class PlaySequence extends Sequence {
+		private PlaySequence() throws InvalidMidiDataException {
+			super(Sequence.PPQ, MMLTickTable.TPQN);
+		}
+
+		private void addTrack(Track track) {
+			tracks.add(track);
+		}
+	}
+
+	private record Entry(long fingerprint, Track track) {}
+
+	private final Map<Integer, Entry> cache = new HashMap<>();
+	private final Map<Integer, Entry> next = new HashMap<>();
+	private PlaySequence sequence;
+	private int buildCount = 0;
+
+	/**
+	 * シーケンスの作成を開始する.
+	 * @throws InvalidMidiDataException
+	 */
+	void begin() throws InvalidMidiDataException {
+		sequence = new PlaySequence();
+		next.clear();
+		buildCount = 0;
+	}
+
+	/**
+	 * MIDIトラックを追加する. フィンガープリントが前回と同じ場合は前回のMIDIトラックを使用する.
+	 * @param key          パートを示すキー (チャンネル番号)
+	 * @param fingerprint  パートの内容のフィンガープリント
+	 * @param builder      変更があった場合のMIDIトラックの作成
+	 * @throws InvalidMidiDataException
+	 */
+	void add(int key, long fingerprint, ITrackBuilder builder) throws InvalidMidiDataException {
+		Entry entry = cache.get(key);
+		if ((entry != null) && (entry.fingerprint() == fingerprint)) {
+			sequence.addTrack(entry.track());
+		} else {
+			Track track = sequence.createTrack();
+			builder.build(track);
+			entry = new Entry(fingerprint, track);
+			buildCount++;
+		}
+		next.put(key, entry);
+	}
+
+	/**
+	 * シーケンスの作成を終了する. 今回追加しなかったパートは破棄する.
+	 * @return 作成したシーケンス
+	 */
+	Sequence end() {
+		cache.clear();
+		cache.putAll(next);
+		next.clear();
+		Sequence result = sequence;
+		sequence = null;
+		return result;
+	}
+
+	/**
+	 * 保持しているMIDIトラックをすべて破棄する.
+	 */
+	void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * @return 直前のシーケンス作成で, 新たに作成したMIDIトラックの数
+	 */
+	int getBuildCount() {
+		return buildCount;
+	}
+
+	private static long mix(long h, long value) {
+		// FNV-1a 64bit
+		for (int i = 0; i < 8; i++) {
+			h ^= (value >>> (i * 8)) & 0xff;
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+
+	/**
+	 * パートのフィンガープリント
+	 * @param noteList   パートのノートリスト
+	 * @param attributes MIDIトラックの内容に影響するその他の値 (楽器, アタック遅延補正など)
+	 */
+	static long fingerprint(List<MMLNoteEvent> noteList, int... attributes) {
+		long h = 0xcbf29ce484222325L;
+		for (int attribute : attributes) {
+			h = mix(h, attribute);
+		}
+		for (MMLNoteEvent note : noteList) {
+			h = mix(h, ((long)note.getTickOffset() << 32) | (note.getTick() & 0xffffffffL));
+			var base = note.getTuningBase();
+			h = mix(h, ((long)note.getNote() << 32) | ((note.getVelocity() & 0xffffffL) << 8) | ((base != null) ? base.ordinal() + 1 : 0));
+			h = mix(h, note.isMute() ? 1 : 0);
+		}
+		return h;
+	}
+
+	/**
+	 * テンポトラックのフィンガープリント
+	 * @param tempoList テンポリスト
+	 * @param totalTick 曲の長さ. 以降のテンポは出力しない.
+	 */
+	static long tempoFingerprint(List<MMLTempoEvent> tempoList, int totalTick) {
+		long h = 0xcbf29ce484222325L;
+		for (MMLTempoEvent tempo : tempoList) {
+			if (tempo.getTickOffset() >= totalTick) {
+				break;
+			}
+			h = mix(h, ((long)tempo.getTickOffset() << 32) | (tempo.getTempo() & 0xffffffffL));
+		}
+		return h;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiUnavailableException;
+
+import jp.fourthline.mmlTools.MMLScore;
+import jp.fourthline.mmlTools.MMLTrack;
+
+/**
+ * トラックごとのwavファイル (ステム) を並列に出力する.
+ * <p>
+ * トラックごとに専用のシンセサイザを持つ {@link WavRenderer} で出力する. 同時に開くシンセサイザは並列数までとする.
+ * 全トラックとも曲の先頭から出力するので, 出力したファイルはそのまま重ねることができる.
+ * </p>
+ */
+public final class StemWavout {
+	/**
+	 * トラックを出力するレンダラーを作成する.
+	 */
+	public interface IRendererFactory {
+		WavRenderer create(int trackIndex) throws InvalidMidiDataException, MidiUnavailableException;
+	}
+
+	private final List<File> files = new ArrayList<>();
+	private final IRendererFactory factory;
+	private final int jobs;
+	private final WavRenderer[] renderers;
+	private final long[] doneLen;
+	private volatile boolean cancel = false;
+
+	/**
+	 * @param score    出力するMMLScore
+	 * @param baseFile 出力ファイル名のベース. "name.wav" に対して "name_01_トラック名.wav" を出力する.
+	 * @param jobs     並列数
+	 * @param factory  トラックのレンダラー
+	 */
+	public StemWavout(MMLScore score, File baseFile, int jobs, IRendererFactory factory) {
+		int index = 0;
+		for (MMLTrack track : score.getTrackList()) {
+			files.add(stemFile(baseFile, index++, track.getTrackName()));
+		}
+		this.factory = factory;
+		this.jobs = Math.max(1, jobs);
+		this.renderers = new WavRenderer[files.size()];
+		this.doneLen = new long[files.size()];
+	}
+
+	/**
+	 * @param baseFile   出力ファイル名のベース
+	 * @param trackIndex トラック番号
+	 * @param trackName  トラック名
+	 * @return 出力するファイル
+	 */
+	static File stemFile(File baseFile, int trackIndex, String trackName) {
+		String name = baseFile.getName();
+		int dot = name.lastIndexOf('.');
+		String base = (dot > 0) ? name.substring(0, dot) : name;
+		String suffix = (dot > 0) ? name.substring(dot) : ".wav";
+		String track = (trackName == null) ? "" : trackName.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+		String stem = String.format("%s_%02d%s%s", base, trackIndex + 1, track.isEmpty() ? "" : "_", track);
+		return new File(baseFile.getAbsoluteFile().getParentFile(), stem + suffix);
+	}
+
+	/**
+	 * @return 出力するファイルのリスト (トラック順)
+	 */
+	public List<File> getFiles() {
+		return files;
+	}
+
+	/**
+	 * @return 出力済みのPCMのバイト数の合計
+	 */
+	public synchronized long getLen() {
+		long len = 0;
+		for (int i = 0; i < renderers.length; i++) {
+			len += (renderers[i] != null) ? renderers[i].getLen() : doneLen[i];
+		}
+		return len;
+	}
+
+	/**
+	 * 出力を中断する.
+	 */
+	public synchronized void cancel() {
+		cancel = true;
+		for (WavRenderer renderer : renderers) {
+			if (renderer != null) {
+				renderer.cancel();
+			}
+		}
+	}
+
+	private WavRenderer start(int index) throws InvalidMidiDataException, MidiUnavailableException {
+		if (cancel) {
+			return null;
+		}
+		WavRenderer renderer = factory.create(index);
+		synchronized (this) {
+			renderers[index] = renderer;
+			if (cancel) {
+				renderer.cancel();
+			}
+		}
+		return renderer;
+	}
+
+	private synchronized void end(int index) {
+		if (renderers[index] != null) {
+			doneLen[index] = renderers[index].getLen();
+			renderers[index] = null;
+		}
+	}
+
+	private boolean renderTrack(int index) throws IOException, InvalidMidiDataException, MidiUnavailableException {
+		try {
+			WavRenderer renderer = start(index);
+			return (renderer != null) && renderer.render(files.get(index));
+		} finally {
+			end(index);
+		}
+	}
+
+	/**
+	 * 全トラックを出力する.
+	 * @return 中断せずに出力が完了した場合は true.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 * @throws InvalidMidiDataException
+	 * @throws MidiUnavailableException
+	 */
+	public boolean render() throws IOException, InterruptedException, InvalidMidiDataException, MidiUnavailableException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, Math.max(1, files.size())));
+		try {
+			var futures = new ArrayList<Future<Boolean>>(files.size());
+			for (int i = 0; i < files.size(); i++) {
+				int index = i;
+				futures.add(executor.submit(() -> renderTrack(index)));
+			}
+			boolean result = true;
+			for (var future : futures) {
+				try {
+					result &= future.get();
+				} catch (ExecutionException e) {
+					cancel();
+					var cause = e.getCause();
+					if (cause instanceof IOException ioe) {
+						throw ioe;
+					} else if (cause instanceof InvalidMidiDataException ime) {
+						throw ime;
+					} else if (cause instanceof MidiUnavailableException mue) {
+						throw mue;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+			return result && !cancel;
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
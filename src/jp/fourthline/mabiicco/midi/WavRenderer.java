@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiChannel;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiUnavailableException;
+import javax.sound.midi.Receiver;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Synthesizer;
+import javax.sound.midi.Track;
+import javax.sound.sampled.AudioFormat;
+
+import com.sun.media.sound.AudioSynthesizer;
+import com.sun.media.sound.SoftSynthesizer;
+
+import jp.fourthline.mmlTools.MMLTempoEvent;
+
+/**
+ * シーケンサを使わずにシンセサイザの出力を直接読み出して, 実時間を待たずにwavファイルを出力する.
+ * <p>
+ * MIDIイベントは時刻を付けてシンセサイザに送信し, 読み出した PCMはそのまま出力ファイルに書き込む.
+ * wavヘッダは先頭に仮の長さで書き込み, 出力完了後に長さを更新する.
+ * 送信するのはノートON/OFFのみで, 音色, パンポット, 音量は事前に {@link #getChannels()} で設定する.
+ * </p>
+ */
+public final class WavRenderer {
+	public static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+
+	private static final int HEADER_SIZE = 44;
+	/** 1回に読み出すフレーム数 (約100ms) */
+	private static final int BLOCK_FRAMES = 4410;
+	/** 最後のイベント以降, 無音になるまで出力する最大の時間 (us) */
+	private static final long MAX_TAIL_MICROS = 10_000_000L;
+
+	private final AudioSynthesizer synthesizer;
+	private final InputStream stream;
+	private final Sequence sequence;
+	private final int startTempo;
+
+	private volatile boolean cancel = false;
+	private volatile long len = 0;
+
+	/**
+	 * 専用のシンセサイザを開いてレンダラーを作成する.
+	 * @param sequence   出力するシーケンス
+	 * @param startTempo 開始テンポ (BPM)
+	 * @param info       シンセサイザの設定
+	 * @throws MidiUnavailableException
+	 */
+	public WavRenderer(Sequence sequence, int startTempo, Map<String, Object> info) throws MidiUnavailableException {
+		this.synthesizer = new SoftSynthesizer();
+		this.stream = synthesizer.openStream(FORMAT, info);
+		this.sequence = sequence;
+		this.startTempo = startTempo;
+	}
+
+	public Synthesizer getSynthesizer() {
+		return synthesizer;
+	}
+
+	public MidiChannel[] getChannels() {
+		return synthesizer.getChannels();
+	}
+
+	/**
+	 * @return 出力済みのPCMのバイト数
+	 */
+	public long getLen() {
+		return len;
+	}
+
+	/**
+	 * 出力を中断する.
+	 */
+	public void cancel() {
+		cancel = true;
+	}
+
+	public boolean isCanceled() {
+		return cancel;
+	}
+
+	/**
+	 * シーケンスのノートイベントを時刻順に並べ, 各イベントの時刻 (us) を求める.
+	 * @param times 各イベントの時刻を格納する
+	 * @return 時刻順のイベント
+	 */
+	private List<MidiEvent> sortedEvents(List<Long> times) {
+		var events = new ArrayList<MidiEvent>();
+		for (Track track : sequence.getTracks()) {
+			for (int i = 0; i < track.size(); i++) {
+				MidiEvent event = track.get(i);
+				var message = event.getMessage();
+				if ( (message instanceof MetaMessage meta) && (meta.getType() == MMLTempoEvent.META) ) {
+					events.add(event);
+				} else if (message instanceof ShortMessage sm) {
+					int command = sm.getCommand();
+					if ( (command == ShortMessage.NOTE_ON) || (command == ShortMessage.NOTE_OFF) ) {
+						events.add(event);
+					}
+				}
+			}
+		}
+		// 同じtickのイベントはトラック内の順序を保つ.
+		events.sort(Comparator.comparingLong(MidiEvent::getTick));
+
+		double resolution = sequence.getResolution();
+		double mpq = 60_000_000.0 / startTempo;
+		double micros = 0.0;
+		long lastTick = 0;
+		var noteEvents = new ArrayList<MidiEvent>(events.size());
+		for (MidiEvent event : events) {
+			micros += (event.getTick() - lastTick) * mpq / resolution;
+			lastTick = event.getTick();
+			if (event.getMessage() instanceof MetaMessage meta) {
+				mpq = ByteBuffer.allocate(4).put((byte) 0).put(meta.getData(), 0, 3).getInt(0);
+			} else {
+				noteEvents.add(event);
+				times.add((long) micros);
+			}
+		}
+		return noteEvents;
+	}
+
+	private static int readBlock(InputStream in, byte[] b) throws IOException {
+		int n = 0;
+		while (n < b.length) {
+			int r = in.read(b, n, b.length - n);
+			if (r < 0) {
+				break;
+			}
+			n += r;
+		}
+		return n;
+	}
+
+	private static boolean isSilent(byte[] b, int len) {
+		for (int i = 0; i < len; i++) {
+			if (b[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * PCM 16bit stereo のwavヘッダ
+	 * @param dataLen データ部のバイト数
+	 */
+	static ByteBuffer waveHeader(long dataLen) {
+		int channels = FORMAT.getChannels();
+		int sampleRate = (int) FORMAT.getSampleRate();
+		int frameSize = FORMAT.getFrameSize();
+		var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.put("RIFF".getBytes()).putInt((int) (dataLen + HEADER_SIZE - 8)).put("WAVE".getBytes());
+		header.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels);
+		header.putInt(sampleRate).putInt(sampleRate * frameSize).putShort((short) frameSize).putShort((short) FORMAT.getSampleSizeInBits());
+		header.put("data".getBytes()).putInt((int) dataLen);
+		return header.flip();
+	}
+
+	/**
+	 * wavファイルを出力する. 出力後はシンセサイザを閉じる.
+	 * @param outFile 出力ファイル
+	 * @return 中断せずに出力が完了した場合は true.
+	 * @throws IOException
+	 * @throws MidiUnavailableException
+	 */
+	public boolean render(File outFile) throws IOException, MidiUnavailableException {
+		var times = new ArrayList<Long>();
+		List<MidiEvent> events = sortedEvents(times);
+		long endMicros = times.isEmpty() ? 0 : times.get(times.size() - 1);
+		int frameSize = FORMAT.getFrameSize();
+		double sampleRate = FORMAT.getSampleRate();
+		byte[] buffer = new byte[BLOCK_FRAMES * frameSize];
+
+		try (Receiver receiver = synthesizer.getReceiver();
+				var channel = FileChannel.open(outFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(waveHeader(0));
+			long frames = 0;
+			long dataLen = 0;
+			int index = 0;
+			while (!cancel) {
+				long blockEndMicros = (long) ((frames + BLOCK_FRAMES) * 1_000_000L / sampleRate);
+				while ( (index < events.size()) && (times.get(index) < blockEndMicros) ) {
+					receiver.send(events.get(index).getMessage(), times.get(index));
+					index++;
+				}
+
+				int n = readBlock(stream, buffer);
+				if (n <= 0) {
+					break;
+				}
+				if ( (index >= events.size()) && (frames * 1_000_000L / sampleRate >= endMicros) ) {
+					// 最後のイベント以降は, 無音になった時点で終了する.
+					if (isSilent(buffer, n) || (frames * 1_000_000L / sampleRate >= endMicros + MAX_TAIL_MICROS)) {
+						break;
+					}
+				}
+				channel.write(ByteBuffer.wrap(buffer, 0, n));
+				frames += n / frameSize;
+				dataLen += n;
+				len = dataLen;
+			}
+			channel.write(waveHeader(dataLen), 0);
+		} finally {
+			close();
+		}
+		return !cancel;
+	}
+
+	public void close() {
+		try {
+			stream.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		synthesizer.close();
+	}
+}
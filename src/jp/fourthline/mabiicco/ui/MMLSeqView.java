@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.ui;
@@ -579,11 +579,26 @@ public final class MMLSeqView extends AbstractMMLManager implements ChangeListen
 		}
 	}
 
+	/**
+	 * undo/redoで復元したスコアをgenerateする. 復元前と同じ内容のトラックは, 前回のgenerate結果を再利用する.
+	 * generateできない, またはgenerateによって内容が変わる場合は, 復元した状態に戻す.
+	 */
+	private void generateRestoredScore() {
+		var snapshot = mmlScore.getSnapshotParts();
+		try {
+			mmlScore.generateAll();
+			if (snapshot.equals(mmlScore.getSnapshotParts())) {
+				return;
+			}
+		} catch (MMLExceptionList | MMLVerifyException e) {}
+		mmlScore.putSnapshot(snapshot);
+	}
+
 	public void undo() {
 		if (undoEdit.canUndo()) {
 			var time = NanoTime.start();
 			undoEdit.undo();
-			mmlScore = mmlScore.toGeneratedScore(false);
+			generateRestoredScore();
 			resetTrackView();
 			updateSelectedTrackAndMMLPart();
 			updateActivePart(false);
@@ -595,7 +610,7 @@ public final class MMLSeqView extends AbstractMMLManager implements ChangeListen
 		if (undoEdit.canRedo()) {
 			var time = NanoTime.start();
 			undoEdit.redo();
-			mmlScore = mmlScore.toGeneratedScore(false);
+			generateRestoredScore();
 			resetTrackView();
 			updateSelectedTrackAndMMLPart();
 			updateActivePart(false);
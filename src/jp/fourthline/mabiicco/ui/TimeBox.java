@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2024 たんらる
+ * Copyright (C) 2022-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.ui;
@@ -12,7 +12,6 @@ import javax.swing.JComboBox;
 
 import jp.fourthline.mabiicco.midi.MabiDLS;
 import jp.fourthline.mmlTools.MMLScore;
-import jp.fourthline.mmlTools.MMLTempoConverter;
 import jp.fourthline.mmlTools.MMLTempoEvent;
 
 
@@ -52,9 +51,10 @@ public final class TimeBox extends JComboBox<StringBuffer> implements Runnable {
 	private void update(long position) {
 		MMLScore score = mmlManager.getMMLScore();
 		List<MMLTempoEvent> tempoList = score.getTempoEventList();
-		long time = Math.round(MMLTempoConverter.getTimeOnTickOffset(tempoList, (int)position));
+		var tempoMap = score.getTempoMap();
+		long time = Math.round(tempoMap.getTimeOnTickOffset((int)position));
 		int totalTick = score.getTotalTickLength();
-		long totalTime = Math.round(MMLTempoConverter.getTimeOnTickOffset(tempoList, totalTick));
+		long totalTime = Math.round(tempoMap.getTimeOnTickOffset(totalTick));
 		int tempo = MMLTempoEvent.searchOnTick(tempoList, (int)position);
 
 		String str1 = String.format("time %d:%02d.%d/%d:%02d.%d (t%d)", 
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2017-2022 たんらる
+ * Copyright (C) 2017-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.ui;
@@ -11,15 +11,22 @@ import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.concurrent.Callable;
+import java.util.function.LongSupplier;
 
+import javax.swing.JCheckBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
 
 import jp.fourthline.mabiicco.ActionDispatcher;
 import jp.fourthline.mabiicco.midi.MabiDLS;
+import jp.fourthline.mabiicco.midi.StemWavout;
+import jp.fourthline.mabiicco.midi.WavRenderer;
+import jp.fourthline.mmlTools.core.NanoTime;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -35,9 +42,11 @@ public final class WavoutPanel extends JPanel {
 	private final JButton startButton = new JButton(appText("wavout.start"));
 	private final JButton cancelButton = new JButton(appText("wavout.cancel"));
 	private final JProgressBar progress = new JProgressBar();
+	private final JCheckBox stemsCheck = UIUtils.createCheckBox("wavout.stems", false);
 
 	private boolean run = false;
 	private final long totalTime;
+	private Runnable renderCancel = null;
 	private final long totalBytes;
 
 	public WavoutPanel(MainFrame parentFrame, IMMLManager mmlManager, File file) {
@@ -62,6 +71,9 @@ public final class WavoutPanel extends JPanel {
 		p1.add(new JLabel("File: "+file.getName()));
 		p1.add(new JLabel("Size: "+df.format((double)totalBytes/1024.0/1024.0)+"MB"));
 		p1.add(progress);
+		// ステム出力は再生せずに出力する場合のみ.
+		stemsCheck.setEnabled(!"true".equals(System.getProperty("mabiicco.wavout.realtime")));
+		p1.add(stemsCheck);
 
 		startButton.addActionListener(t -> startWavout());
 		cancelButton.addActionListener(t -> stopWavout());
@@ -83,8 +95,13 @@ public final class WavoutPanel extends JPanel {
 		System.out.println("startWavout(): "+totalBytes);
 		run = true;
 		startButton.setEnabled(false);
+		stemsCheck.setEnabled(false);
 		parentFrame.disableNoplayItems();
 		var dls = MabiDLS.getInstance();
+		if (!"true".equals(System.getProperty("mabiicco.wavout.realtime"))) {
+			startRender(dls);
+			return;
+		}
 		try {
 			dls.startWavout(mmlManager.getMMLScore(), file, this::stopWavout);
 		} catch (IOException e) {
@@ -105,6 +122,68 @@ public final class WavoutPanel extends JPanel {
 		}).start();
 	}
 
+	/**
+	 * 再生せずにシンセサイザの出力を直接書き込む. ステム出力の場合はトラックごとに並列に出力する.
+	 */
+	private void startRender(MabiDLS dls) {
+		var score = mmlManager.getMMLScore();
+		Callable<Boolean> task;
+		LongSupplier len;
+		if (stemsCheck.isSelected()) {
+			var stems = new StemWavout(score, file, Runtime.getRuntime().availableProcessors(), t -> dls.createWavRenderer(score, t));
+			int count = Math.max(1, stems.getFiles().size());
+			task = stems::render;
+			len = () -> stems.getLen() / count;
+			renderCancel = stems::cancel;
+		} else {
+			WavRenderer renderer;
+			try {
+				renderer = dls.createWavRenderer(score);
+			} catch (Exception e) {
+				// 出力を開始していないので, ダイアログを閉じるのみ.
+				run = false;
+				parentFrame.enableNoplayItems();
+				dialog.setVisible(false);
+				JOptionPane.showMessageDialog(parentFrame, e.getLocalizedMessage(), "ERROR", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			task = () -> renderer.render(file);
+			len = renderer::getLen;
+			renderCancel = renderer::cancel;
+		}
+		new Thread(() -> {
+			NanoTime time = NanoTime.start();
+			try {
+				task.call();
+				SwingUtilities.invokeLater(() -> {
+					if (run) {
+						stopWavout();
+						ActionDispatcher.getInstance().showTime("wavout", time.ms());
+					}
+				});
+			} catch (Exception e) {
+				e.printStackTrace();
+				SwingUtilities.invokeLater(() -> {
+					if (run) {
+						stopWavout();
+					}
+					JOptionPane.showMessageDialog(parentFrame, e.getLocalizedMessage(), "ERROR", JOptionPane.ERROR_MESSAGE);
+				});
+			}
+		}, "WavRenderer").start();
+		new Thread(() -> {
+			while (run) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				int now = (int) len.getAsLong();
+				SwingUtilities.invokeLater(() -> updateProgress(now));
+			}
+		}).start();
+	}
+
 	/**
 	 * ダイアログを表示する.
 	 */
@@ -118,10 +197,15 @@ public final class WavoutPanel extends JPanel {
 
 	private void stopWavout() {
 		parentFrame.enableNoplayItems();
-		MabiDLS.getInstance().stopWavout();
 		dialog.setVisible(false);
-		if (run) {
-			ActionDispatcher.getInstance().showTime("wavout", MabiDLS.getInstance().getWavout().getTime());
+		if (renderCancel != null) {
+			renderCancel.run();
+			renderCancel = null;
+		} else {
+			MabiDLS.getInstance().stopWavout();
+			if (run) {
+				ActionDispatcher.getInstance().showTime("wavout", MabiDLS.getInstance().getWavout().getTime());
+			}
 		}
 		run = false;
 	}
@@ -679,12 +679,14 @@ public final class MMLEditor implements MouseInputListener, IEditState, IEditCon
 		selectNote(null);
 		MMLEventList clipEventList = fromClipBoard();
 		int delta = (int)( startTick - clipEventList.getMMLNoteEventList().get(0).getTickOffset() );
+		List<MMLNoteEvent> addNoteList = new ArrayList<>();
 		for (MMLNoteEvent noteEvent : clipEventList.getMMLNoteEventList()) {
 			MMLNoteEvent addNote = noteEvent.clone();
 			addNote.setTickOffset(noteEvent.getTickOffset() + delta);
-			editEventList.addMMLNoteEvent(addNote);
-			selectNote(addNote, true);
+			addNoteList.add(addNote);
 		}
+		editEventList.addAll(addNoteList);
+		addNoteList.forEach(addNote -> selectNote(addNote, true));
 
 		editObserver.notifyUpdateEditState();
 		mmlManager.updateActivePart(true);
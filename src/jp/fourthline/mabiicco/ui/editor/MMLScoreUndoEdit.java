@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2014-2024 たんらる
+ * Copyright (C) 2014-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.ui.editor;
@@ -10,9 +10,6 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.Base64;
-import java.util.Stack;
 
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
@@ -25,13 +22,13 @@ import jp.fourthline.mabiicco.ui.IMMLManager;
 import jp.fourthline.mmlTools.MMLScore;
 
 public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFileState {
-	private static final long serialVersionUID = 4093930608712571204L;
+	private static final long serialVersionUID = -2358213045827336110L;
 
 	private IFileStateObserver fileStateObserver = null;
 
-	private static final int MAX_UNDO = 20;
-	private final Stack<byte[]> undoState = new Stack<>();
-	private final Stack<byte[]> redoState = new Stack<>();
+	private static final int MAX_UNDO = 500;
+	private static final long MAX_UNDO_BYTES = 32L * 1024 * 1024;
+	private final UndoHistory history = new UndoHistory(MAX_UNDO, MAX_UNDO_BYTES);
 
 	private final IMMLManager mmlManager;
 	private int originalIndex = 0; /** オリジナル位置. undo/redo範囲外になった場合は 負値. 0~size-1 */
@@ -41,8 +38,7 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 	}
 
 	public void initState() {
-		undoState.clear();
-		redoState.clear();
+		history.init(null);
 		originalIndex = 0;
 
 		saveState();
@@ -51,29 +47,26 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 	@Override
 	public void saveState() {
 		MMLScore score = mmlManager.getMMLScore();
-		byte[] state = score.getObjectState();
-		if ( !undoState.empty() && Arrays.equals(state, undoState.lastElement()) ) {
+		var state = score.getSnapshotParts();
+		if (history.isCurrent(state)) {
 			return;
 		}
 
-		undoState.push(state);
-		redoState.clear();
-
-		if (undoState.size() > MAX_UNDO) {
-			undoState.remove(0);
-			originalIndex = -1;
+		int removed = history.push(state);
+		if (removed > 0) {
+			originalIndex = Math.max(originalIndex - removed, -1);
 		}
 
 		if (fileStateObserver != null)
 			fileStateObserver.notifyUpdateFileState();
 
-		System.out.println("saveState() "+undoState.size());
+		System.out.println("saveState() "+history.undoSize());
 	}
 
 	@Override
 	public void revertState() {
 		MMLScore score = mmlManager.getMMLScore();
-		score.putObjectState(undoState.lastElement());
+		score.putSnapshot(history.current());
 	}
 
 	@Override
@@ -82,9 +75,7 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 
 		MMLScore score = mmlManager.getMMLScore();
 		if (canUndo()) {
-			byte[] nextState = undoState.pop();
-			score.putObjectState(undoState.lastElement());
-			redoState.push(nextState);
+			score.putSnapshot(history.undo());
 			makeBackup();
 			if (fileStateObserver != null)
 				fileStateObserver.notifyUpdateFileState();
@@ -97,9 +88,7 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 
 		MMLScore score = mmlManager.getMMLScore();
 		if (canRedo()) {
-			byte[] state = redoState.pop();
-			score.putObjectState(state);
-			undoState.push(state);
+			score.putSnapshot(history.redo());
 			makeBackup();
 			if (fileStateObserver != null)
 				fileStateObserver.notifyUpdateFileState();
@@ -108,22 +97,22 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 
 	@Override
 	public boolean canUndo() {
-		return undoState.size() > 1;
+		return history.canUndo();
 	}
 
 	@Override
 	public boolean canRedo() {
-		return (!redoState.empty());
+		return history.canRedo();
 	}
 
 	@Override
 	public boolean isModified() {
-		return originalIndex != (undoState.size() - 1);
+		return originalIndex != (history.undoSize() - 1);
 	}
 
 	@Override
 	public void setOriginalBase() {
-		originalIndex = undoState.size() - 1;
+		originalIndex = history.undoSize() - 1;
 	}
 
 	@Override
@@ -141,31 +130,13 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 		return str;
 	}
 
-	private void writeStack(PrintStream out, Stack<byte[]> data) throws IOException {
-		out.println(data.size());
-		for (byte[] datum : data) {
-			out.println(Base64.getEncoder().encodeToString(datum));
-		}
-	}
-
-	private void readStack(BufferedReader in, Stack<byte[]> data) throws IOException {
-		data.clear();
-		int count = Integer.parseInt(in.readLine());
-		for (int i = 0; i < count; i++) {
-			data.add( Base64.getDecoder().decode( in.readLine() ));
-		}
-	}
-
 	private String makeBackupString() throws IOException {
 		ByteArrayOutputStream bstream = new ByteArrayOutputStream();
 		PrintStream pstream = new PrintStream(bstream, false, StandardCharsets.UTF_8);
 		pstream.println(serialVersionUID);
 
-		// undoState@Stack<byte[]>
-		writeStack(pstream, undoState);
-
-		// redoState@Stack<byte[]>
-		writeStack(pstream, redoState);
+		// history@UndoHistory
+		history.write(pstream);
 
 		// originalIndex@int
 		pstream.println(originalIndex);
@@ -181,11 +152,8 @@ public final class MMLScoreUndoEdit extends AbstractUndoableEdit implements IFil
 			return false;
 		}
 
-		// undoState@Stack<byte[]>
-		readStack(breader, undoState);
-
-		// redoState@Stack<byte[]>
-		readStack(breader, redoState);
+		// history@UndoHistory
+		history.read(breader);
 
 		// originalIndex@int
 		originalIndex = Integer.parseInt( breader.readLine() );
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2014-2024 たんらる
+ * Copyright (C) 2014-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.ui.editor;
@@ -140,7 +140,8 @@ public final class MMLTempoEditor extends AbstractMarkerEditor<MMLTempoEvent> {
 			}
 
 			String title = AppResource.appText("edit.tempoConvert.result");
-			String message = AppResource.appText("edit.tempoConvert.result_label") + " = " + converter.getConversionDiff();
+			String message = AppResource.appText("edit.tempoConvert.result_label") + " = " + converter.getConversionDiff()
+					+ " " + String.format(AppResource.appText("edit.tempoConvert.result_max"), converter.getMaxConversionDiff());
 			ret = JOptionPane.showConfirmDialog(parentFrame, message, title, JOptionPane.OK_CANCEL_OPTION);
 		}
 		if (ret == JOptionPane.OK_OPTION) {
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.ui.editor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+
+import jp.fourthline.mmlTools.MMLScoreSnapshot.Parts;
+
+/**
+ * Undo/Redo用の状態履歴.
+ * <p>
+ * 最新の状態のみをそのまま保持し, それ以外の状態は隣接する状態との差分で保持する.
+ * 差分はヘッダとトラックごとに作成し, 前の状態と同じ配列を使用しているトラックは比較せずに参照のみを保持する.
+ * 保持数と差分の合計サイズの上限を超えた場合は古い状態から削除する.
+ * </p>
+ */
+final class UndoHistory {
+	private static final byte[] EMPTY = new byte[0];
+
+	/**
+	 * 状態間の差分. base の [prefix, base.length-suffix) を data に置き換える.
+	 */
+	record Delta(int prefix, int suffix, byte[] data) {
+		static Delta diff(byte[] base, byte[] target) {
+			int max = Math.min(base.length, target.length);
+			int prefix = Arrays.mismatch(base, target);
+			if (prefix < 0) {
+				prefix = max;
+			}
+			int suffix = 0;
+			while ((suffix < max - prefix) && (base[base.length - 1 - suffix] == target[target.length - 1 - suffix])) {
+				suffix++;
+			}
+			return new Delta(prefix, suffix, Arrays.copyOfRange(target, prefix, target.length - suffix));
+		}
+
+		byte[] apply(byte[] base) {
+			byte[] target = new byte[prefix + data.length + suffix];
+			System.arraycopy(base, 0, target, 0, prefix);
+			System.arraycopy(data, 0, target, prefix, data.length);
+			System.arraycopy(base, base.length - suffix, target, prefix + data.length, suffix);
+			return target;
+		}
+
+		int size() {
+			return data.length + 16;
+		}
+	}
+
+	/**
+	 * トラックの差分. base 番目のトラック (負値の場合は空) に delta を適用する. delta が null の場合は base のトラックと同じ.
+	 */
+	record TrackDelta(int base, Delta delta) {}
+
+	/**
+	 * 状態間の差分. header が null の場合はヘッダに変更なし.
+	 */
+	record Step(Delta header, TrackDelta[] tracks) {
+		static Step diff(Parts base, Parts target) {
+			Delta header = (base.header() == target.header()) || Arrays.equals(base.header(), target.header()) ? null : Delta.diff(base.header(), target.header());
+			var baseIndex = new IdentityHashMap<byte[], Integer>();
+			for (int i = 0; i < base.tracks().length; i++) {
+				baseIndex.putIfAbsent(base.tracks()[i], i);
+			}
+			TrackDelta[] tracks = new TrackDelta[target.tracks().length];
+			for (int i = 0; i < tracks.length; i++) {
+				byte[] track = target.tracks()[i];
+				Integer index = baseIndex.get(track);
+				if (index != null) {
+					tracks[i] = new TrackDelta(index, null);
+				} else if (i < base.tracks().length) {
+					tracks[i] = new TrackDelta(i, Delta.diff(base.tracks()[i], track));
+				} else {
+					tracks[i] = new TrackDelta(-1, Delta.diff(EMPTY, track));
+				}
+			}
+			return new Step(header, tracks);
+		}
+
+		Parts apply(Parts base) {
+			byte[] header = (this.header == null) ? base.header() : this.header.apply(base.header());
+			byte[][] tracks = new byte[this.tracks.length][];
+			for (int i = 0; i < tracks.length; i++) {
+				var t = this.tracks[i];
+				byte[] track = (t.base() < 0) ? EMPTY : base.tracks()[t.base()];
+				tracks[i] = (t.delta() == null) ? track : t.delta().apply(track);
+			}
+			return new Parts(header, tracks);
+		}
+
+		int size() {
+			int size = (header == null) ? 16 : header.size();
+			for (TrackDelta t : tracks) {
+				size += (t.delta() == null) ? 4 : t.delta().size();
+			}
+			return size;
+		}
+	}
+
+	private final int maxCount;
+	private final long maxBytes;
+
+	private Parts current = null;
+	/** 新しいものが先頭. current から1つ前の状態への差分 */
+	private final Deque<Step> undoList = new ArrayDeque<>();
+	/** 新しいものが先頭. current から1つ後の状態への差分 */
+	private final Deque<Step> redoList = new ArrayDeque<>();
+	private long undoBytes = 0;
+
+	/**
+	 * @param maxCount 保持する状態数の上限
+	 * @param maxBytes 差分の合計サイズの上限 (byte)
+	 */
+	UndoHistory(int maxCount, long maxBytes) {
+		this.maxCount = maxCount;
+		this.maxBytes = maxBytes;
+	}
+
+	void init(Parts state) {
+		undoList.clear();
+		redoList.clear();
+		undoBytes = 0;
+		current = state;
+	}
+
+	Parts current() {
+		return current;
+	}
+
+	boolean isCurrent(Parts state) {
+		return (current != null) && current.equals(state);
+	}
+
+	/**
+	 * 新しい状態を追加し, redo履歴を破棄する.
+	 * @param state 追加する状態
+	 * @return 上限により削除した古い状態の数
+	 */
+	int push(Parts state) {
+		redoList.clear();
+		if (current == null) {
+			current = state;
+			return 0;
+		}
+		Step step = Step.diff(state, current);
+		undoList.addFirst(step);
+		undoBytes += step.size();
+		current = state;
+
+		int removed = 0;
+		while ( !undoList.isEmpty() && ((undoList.size() + 1 > maxCount) || (undoBytes > maxBytes)) ) {
+			undoBytes -= undoList.removeLast().size();
+			removed++;
+		}
+		return removed;
+	}
+
+	/**
+	 * @return 1つ前の状態
+	 */
+	Parts undo() {
+		Step step = undoList.removeFirst();
+		undoBytes -= step.size();
+		Parts prev = step.apply(current);
+		redoList.addFirst(Step.diff(prev, current));
+		current = prev;
+		return current;
+	}
+
+	/**
+	 * @return 1つ後の状態
+	 */
+	Parts redo() {
+		Step step = redoList.removeFirst();
+		Parts next = step.apply(current);
+		Step undoStep = Step.diff(next, current);
+		undoList.addFirst(undoStep);
+		undoBytes += undoStep.size();
+		current = next;
+		return current;
+	}
+
+	boolean canUndo() {
+		return !undoList.isEmpty();
+	}
+
+	boolean canRedo() {
+		return !redoList.isEmpty();
+	}
+
+	/**
+	 * @return undo可能な状態数 (現在の状態を含む)
+	 */
+	int undoSize() {
+		return (current == null) ? 0 : undoList.size() + 1;
+	}
+
+	int redoSize() {
+		return redoList.size();
+	}
+
+	/**
+	 * @return 保持している差分の合計サイズ (byte)
+	 */
+	long getUndoBytes() {
+		return undoBytes;
+	}
+
+	void write(PrintStream out) {
+		var encoder = Base64.getEncoder();
+		out.println(encoder.encodeToString(current.header()));
+		out.println(current.tracks().length);
+		for (byte[] track : current.tracks()) {
+			out.println(encoder.encodeToString(track));
+		}
+		writeList(out, undoList);
+		writeList(out, redoList);
+	}
+
+	private void writeList(PrintStream out, Deque<Step> list) {
+		out.println(list.size());
+		for (Step step : list) {
+			out.println(deltaString(step.header()));
+			out.println(step.tracks().length);
+			for (TrackDelta t : step.tracks()) {
+				out.println(t.base() + " " + deltaString(t.delta()));
+			}
+		}
+	}
+
+	private static String deltaString(Delta delta) {
+		if (delta == null) {
+			return "-";
+		}
+		return delta.prefix() + " " + delta.suffix() + " " + Base64.getEncoder().encodeToString(delta.data());
+	}
+
+	void read(BufferedReader in) throws IOException, NumberFormatException {
+		var decoder = Base64.getDecoder();
+		byte[] header = decoder.decode(in.readLine());
+		byte[][] tracks = new byte[Integer.parseInt(in.readLine())][];
+		for (int i = 0; i < tracks.length; i++) {
+			tracks[i] = decoder.decode(in.readLine());
+		}
+		init(new Parts(header, tracks));
+		readList(in, undoList);
+		undoBytes = undoList.stream().mapToLong(Step::size).sum();
+		readList(in, redoList);
+	}
+
+	private void readList(BufferedReader in, Deque<Step> list) throws IOException, NumberFormatException {
+		list.clear();
+		int count = Integer.parseInt(in.readLine());
+		for (int i = 0; i < count; i++) {
+			Delta header = parseDelta(in.readLine().split(" ", -1), 0);
+			TrackDelta[] tracks = new TrackDelta[Integer.parseInt(in.readLine())];
+			for (int j = 0; j < tracks.length; j++) {
+				String[] s = in.readLine().split(" ", -1);
+				tracks[j] = new TrackDelta(Integer.parseInt(s[0]), parseDelta(s, 1));
+			}
+			list.addLast(new Step(header, tracks));
+		}
+	}
+
+	private static Delta parseDelta(String[] s, int index) {
+		if (s[index].equals("-")) {
+			return null;
+		}
+		return new Delta(Integer.parseInt(s[index]), Integer.parseInt(s[index+1]), Base64.getDecoder().decode(s[index+2]));
+	}
+}
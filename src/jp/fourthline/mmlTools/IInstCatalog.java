@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+/**
+ * MML生成, ファイル読み込み時に参照する楽器情報.
+ * <p>
+ * 音源 (DLS) の読み込みはアプリケーション側で行い, {@link MMLTrack#setInstCatalog(IInstCatalog)} で設定する.
+ * 未設定の場合は {@link #NONE} (楽器情報なし) を使用する.
+ * </p>
+ */
+public interface IInstCatalog {
+	/** ドラムキットを示すprogram番号のフラグ */
+	int DRUM = 0x100;
+
+	/**
+	 * @param program program番号
+	 * @return 使用可能な楽器の場合は true.
+	 */
+	boolean isAvailable(int program);
+
+	/**
+	 * 有効なパート情報を取得する.
+	 * @param program program番号
+	 * @return サイズは4の配列 [ melody, chord1, chord2, song ].
+	 */
+	boolean[] getEnablePart(int program);
+
+	/**
+	 * @param program program番号
+	 * @return 歌パートのみの楽器 (歌, コーラス) の場合は true.
+	 */
+	boolean isSongOnly(int program);
+
+	/**
+	 * @param program program番号
+	 * @return 和音パートにテンポ出力を許容するかどうか.
+	 */
+	boolean allowTempoChordPart(int program);
+
+	/**
+	 * @param program program番号
+	 * @return 打楽器モーション用の休符処理をするかどうか.
+	 */
+	boolean percussionMotionFix(int program);
+
+	/**
+	 * MIDIファイルのドラムチャンネルに割り当てるprogram番号.
+	 * @return 割り当てる楽器がない場合は -1.
+	 */
+	int getDrumProgram();
+
+	/** 楽器情報なし. すべてのprogram番号を通常の楽器 [ melody, chord1, chord2 ] として扱う. */
+	IInstCatalog NONE = new IInstCatalog() {
+		private static final boolean[] NORMAL_PART = new boolean[] { true, true, true, false };
+
+		@Override
+		public boolean isAvailable(int program) {
+			return false;
+		}
+
+		@Override
+		public boolean[] getEnablePart(int program) {
+			return NORMAL_PART.clone();
+		}
+
+		@Override
+		public boolean isSongOnly(int program) {
+			return false;
+		}
+
+		@Override
+		public boolean allowTempoChordPart(int program) {
+			return true;
+		}
+
+		@Override
+		public boolean percussionMotionFix(int program) {
+			return false;
+		}
+
+		@Override
+		public int getDrumProgram() {
+			return -1;
+		}
+	};
+}
@@ -21,6 +21,10 @@ public final class MMLBuilder {
 		globalVZeroTempo = b;
 	}
 
+	public static boolean getMMLVZeroTempo() {
+		return globalVZeroTempo;
+	}
+
 	private final MMLEventList eventList;
 	private final int startOffset;
 	private final int initOct;
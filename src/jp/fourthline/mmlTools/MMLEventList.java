@@ -15,6 +15,10 @@ import jp.fourthline.mmlTools.parser.MMLEventParser;
 
 /**
  * 1行のMMLデータを扱います.
+ * <p>
+ * ノートは MMLNoteEvent のリストで保持する. エディタなどが {@link #getMMLNoteEventList()} のノートを直接変更するため,
+ * プリミティブ配列での保持 ({@link MMLNoteArray}) は行わず, 再生用の変換でのみ使用する.
+ * </p>
  */
 public final class MMLEventList implements Serializable, Cloneable {
 	private static final long serialVersionUID = -1430758411579285535L;
@@ -92,33 +96,71 @@ public final class MMLEventList implements Serializable, Cloneable {
 	}
 
 	/**
-	 * 指定したtickOffset位置にあるNoteEventを検索します.
+	 * 指定したtickOffset以下の位置から始まる最後のノートのindexを二分探索で取得します.
+	 * noteListはtickOffset順に並び, 重複がないことを前提とします.
 	 * @param tickOffset
-	 * @return 見つからなかった場合は、nullを返します.
+	 * @return 該当するノートがない場合は -1 を返します.
 	 */
-	public MMLNoteEvent searchOnTickOffset(long tickOffset) {
-		for (MMLNoteEvent noteEvent : noteList) {
-			if (noteEvent.getTickOffset() <= tickOffset) {
-				if (tickOffset < noteEvent.getEndTick()) {
-					return noteEvent;
-				}
+	private int lastIndexOnOrBefore(long tickOffset) {
+		int low = 0;
+		int high = noteList.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (noteList.get(mid).getTickOffset() <= tickOffset) {
+				low = mid + 1;
 			} else {
-				break;
+				high = mid - 1;
 			}
 		}
+		return high;
+	}
 
-		return null;
+	/**
+	 * 終了位置が指定したtickより後ろにある最初のノートのindexを二分探索で取得します.
+	 * @param tick
+	 * @return 該当するノートがない場合は noteList.size() を返します.
+	 */
+	private int firstIndexEndAfter(long tick) {
+		int low = 0;
+		int high = noteList.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (noteList.get(mid).getEndTick() <= tick) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * 指定したtickOffset位置にあるノートのindexを取得します.
+	 * @param tickOffset
+	 * @return 見つからなかった場合は -1 を返します.
+	 */
+	private int indexOnTickOffset(long tickOffset) {
+		int index = lastIndexOnOrBefore(tickOffset);
+		if ((index >= 0) && (tickOffset < noteList.get(index).getEndTick())) {
+			return index;
+		}
+		return -1;
+	}
+
+	/**
+	 * 指定したtickOffset位置にあるNoteEventを検索します.
+	 * @param tickOffset
+	 * @return 見つからなかった場合は、nullを返します.
+	 */
+	public MMLNoteEvent searchOnTickOffset(long tickOffset) {
+		int index = indexOnTickOffset(tickOffset);
+		return (index >= 0) ? noteList.get(index) : null;
 	}
 
 	public MMLNoteEvent searchOnTickOffsetNextNote(long tickOffset) {
-		int n = noteList.size();
-		for (int i = 0; i < n - 1; i++) {
-			var noteEvent = noteList.get(i);
-			if (noteEvent.getTickOffset() <= tickOffset) {
-				if (tickOffset < noteEvent.getEndTick()) {
-					return noteList.get(i+1);
-				}
-			}
+		int index = indexOnTickOffset(tickOffset);
+		if ((index >= 0) && (index + 1 < noteList.size())) {
+			return noteList.get(index + 1);
 		}
 		return null;
 	}
@@ -129,14 +171,8 @@ public final class MMLEventList implements Serializable, Cloneable {
 	 * @return
 	 */
 	public MMLNoteEvent searchPrevNoteOnTickOffset(long tickOffset) {
-		MMLNoteEvent prevNote = null;
-		for (MMLNoteEvent noteEvent : noteList) {
-			if (noteEvent.getTickOffset() >= tickOffset) {
-				break;
-			}
-			prevNote = noteEvent;
-		}
-		return prevNote;
+		int index = lastIndexOnOrBefore(tickOffset - 1);
+		return (index >= 0) ? noteList.get(index) : null;
 	}
 
 	/**
@@ -145,54 +181,56 @@ public final class MMLEventList implements Serializable, Cloneable {
 	 * @return
 	 */
 	public int[] indexOfMMLString(long tickOffset) {
-		int start = 0;
-		for (MMLNoteEvent noteEvent : noteList) {
-			int[] index = noteEvent.getIndexOfMMLString();
-			if (noteEvent.getTickOffset() <= tickOffset) {
-				if (tickOffset < noteEvent.getEndTick()) {
-					return index;
-				}
-			} else {
-				return new int[] { start, index[0] };
-			}
-			start = index[1];
+		int index = lastIndexOnOrBefore(tickOffset);
+		if ((index >= 0) && (tickOffset < noteList.get(index).getEndTick())) {
+			return noteList.get(index).getIndexOfMMLString();
+		}
+		int start = (index >= 0) ? noteList.get(index).getIndexOfMMLString()[1] : 0;
+		if (index + 1 < noteList.size()) {
+			return new int[] { start, noteList.get(index + 1).getIndexOfMMLString()[0] };
 		}
 		return new int[] { start, start };
 	}
 
 	/**
-	 * ノートイベントを追加します.
-	 * TODO: MMLNoteEvent のメソッドのほうがいいかな？Listを引数として渡す.
+	 * 追加可能なノートイベントかどうかを判定し, 負のオフセットを0に切り詰めます.
 	 * @param addNoteEvent
+	 * @return 追加できない場合は falseを返します.
 	 */
-	public void addMMLNoteEvent(MMLNoteEvent addNoteEvent) {
-		int i;
+	private static boolean prepareAddNoteEvent(MMLNoteEvent addNoteEvent) {
 		if ((addNoteEvent.getNote() < -1) || (addNoteEvent.getTick() <= 0) || (addNoteEvent.getEndTick() <= 0)) {
-			return;
+			return false;
 		}
 		int offset = addNoteEvent.getTickOffset();
 		if (offset < 0) {
 			addNoteEvent.setTick( (addNoteEvent.getTick() + offset) );
 			addNoteEvent.setTickOffset(0);
 		}
+		return true;
+	}
+
+	/**
+	 * ノートイベントを追加します.
+	 * TODO: MMLNoteEvent のメソッドのほうがいいかな？Listを引数として渡す.
+	 * @param addNoteEvent
+	 */
+	public void addMMLNoteEvent(MMLNoteEvent addNoteEvent) {
+		if (!prepareAddNoteEvent(addNoteEvent)) {
+			return;
+		}
 
 		// 追加したノートイベントに重なる前のノートを調節します.
-		for (i = 0; i < noteList.size(); i++) {
+		int i = firstIndexEndAfter(addNoteEvent.getTickOffset() - 1);
+		if (i < noteList.size()) {
 			MMLNoteEvent noteEvent = noteList.get(i);
-			int tickOverlap = noteEvent.getEndTick() - addNoteEvent.getTickOffset();
-			if (addNoteEvent.getTickOffset() < noteEvent.getTickOffset()) {
-				break;
-			}
-			if (tickOverlap >= 0) {
+			if (noteEvent.getTickOffset() <= addNoteEvent.getTickOffset()) {
 				// 追加するノートに音が重なっている.
-				int tick = noteEvent.getTick() - tickOverlap;
+				int tick = addNoteEvent.getTickOffset() - noteEvent.getTickOffset();
 				if (tick == 0) {
 					noteList.remove(i);
-					break;
 				} else {
 					noteEvent.setTick(tick);
 					i++;
-					break;
 				}
 			}
 		}
@@ -201,16 +239,61 @@ public final class MMLEventList implements Serializable, Cloneable {
 		noteList.add(i++, addNoteEvent);
 
 		// 追加したノートイベントに重なっている後続のノートを削除します.
-		for ( ; i < noteList.size(); ) {
-			MMLNoteEvent noteEvent = noteList.get(i);
-			int tickOverlap = addNoteEvent.getEndTick() - noteEvent.getTickOffset();
+		int end = Math.max(i, lastIndexOnOrBefore(addNoteEvent.getEndTick() - 1) + 1);
+		if (i < end) {
+			noteList.subList(i, end).clear();
+		}
+	}
 
-			if (tickOverlap > 0) {
-				noteList.remove(i);
-			} else {
-				break;
+	/**
+	 * tickOffset順に整列済みのノートイベントをまとめて追加します.
+	 * 1つずつ {@link #addMMLNoteEvent(MMLNoteEvent)} で追加した場合と同じ結果を, 1回のマージで生成します.
+	 * 整列されていない場合は, 1つずつ追加します.
+	 * @param sortedNotes tickOffset順に整列済みのノートイベント
+	 */
+	public void addAll(List<MMLNoteEvent> sortedNotes) {
+		for (int i = 1; i < sortedNotes.size(); i++) {
+			if (sortedNotes.get(i-1).getTickOffset() > sortedNotes.get(i).getTickOffset()) {
+				sortedNotes.forEach(this::addMMLNoteEvent);
+				return;
 			}
 		}
+
+		int size = noteList.size();
+		ArrayList<MMLNoteEvent> newList = new ArrayList<>(size + sortedNotes.size());
+		int k = 0;
+		for (MMLNoteEvent addNoteEvent : sortedNotes) {
+			if (!prepareAddNoteEvent(addNoteEvent)) {
+				continue;
+			}
+			int offset = addNoteEvent.getTickOffset();
+			while ((k < size) && (noteList.get(k).getTickOffset() <= offset)) {
+				newList.add(noteList.get(k++));
+			}
+
+			// 追加したノートイベントに重なる前のノートを調節します.
+			int last = newList.size() - 1;
+			if ((last >= 0) && (newList.get(last).getEndTick() >= offset)) {
+				MMLNoteEvent noteEvent = newList.get(last);
+				int tick = offset - noteEvent.getTickOffset();
+				if (tick == 0) {
+					newList.remove(last);
+				} else {
+					noteEvent.setTick(tick);
+				}
+			}
+			newList.add(addNoteEvent);
+
+			// 追加したノートイベントに重なっている後続のノートを削除します.
+			while ((k < size) && (noteList.get(k).getTickOffset() < addNoteEvent.getEndTick())) {
+				k++;
+			}
+		}
+		while (k < size) {
+			newList.add(noteList.get(k++));
+		}
+		noteList.clear();
+		noteList.addAll(newList);
 	}
 
 	/**
@@ -219,24 +302,19 @@ public final class MMLEventList implements Serializable, Cloneable {
 	 * @return 重複している場合は trueを返します.
 	 */
 	public boolean isOverlapNote(MMLNoteEvent noteEvent) {
-		int i;
 		int size = noteList.size();
-		for (i = 0; i < size; i++) {
+		int i = firstIndexEndAfter(noteEvent.getTickOffset());
+		if (i < size) {
 			MMLNoteEvent e = noteList.get(i);
-			if (noteEvent.getTickOffset() < e.getEndTick()) {
-				if (noteEvent.getTickOffset() >= e.getTickOffset()) {
-					return true;
-				}
-				break;
+			if (noteEvent.getTickOffset() >= e.getTickOffset()) {
+				return true;
 			}
 		}
-		for (; i < size; i++) {
+		i = Math.max(i, firstIndexEndAfter(noteEvent.getEndTick() - 1));
+		if (i < size) {
 			MMLNoteEvent e = noteList.get(i);
-			if (noteEvent.getEndTick() <= e.getEndTick()) {
-				if (noteEvent.getEndTick()-1 >= e.getTickOffset()) {
-					return true;
-				}
-				break;
+			if (noteEvent.getEndTick()-1 >= e.getTickOffset()) {
+				return true;
 			}
 		}
 		return false;
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import jp.fourthline.mmlTools.core.TuningBase;
+
+/**
+ * ノート列をプリミティブ配列で保持する (struct-of-arrays).
+ * <p>
+ * tickOffset, tick, note, velocity をそれぞれ int配列で, ミュートとTuningBaseを flags の byte配列で保持する.
+ * ノートごとのオブジェクトを持たないため, 再生用の変換など大量のノートを一時的に扱う場面で使用する.
+ * indexOfMMLString は保持しない.
+ * </p>
+ */
+public final class MMLNoteArray {
+	private static final int FLAG_MUTE = 0x01;
+	private static final int TUNING_SHIFT = 1;
+
+	private static final TuningBase[] TUNING_BASE = TuningBase.values();
+
+	private int size = 0;
+	private int[] tickOffset;
+	private int[] tick;
+	private int[] note;
+	private int[] velocity;
+	private byte[] flags;
+
+	public MMLNoteArray() {
+		this(16);
+	}
+
+	public MMLNoteArray(int capacity) {
+		capacity = Math.max(capacity, 1);
+		tickOffset = new int[capacity];
+		tick = new int[capacity];
+		note = new int[capacity];
+		velocity = new int[capacity];
+		flags = new byte[capacity];
+	}
+
+	/**
+	 * ノートのリストから作成する.
+	 * @param list ノートのリスト
+	 * @return 作成した配列
+	 */
+	public static MMLNoteArray of(List<MMLNoteEvent> list) {
+		var array = new MMLNoteArray(list.size());
+		for (MMLNoteEvent noteEvent : list) {
+			array.add(noteEvent);
+		}
+		return array;
+	}
+
+	private static byte flagsOf(MMLNoteEvent noteEvent) {
+		int f = noteEvent.isMute() ? FLAG_MUTE : 0;
+		if (noteEvent.getTuningBase() != null) {
+			f |= (noteEvent.getTuningBase().ordinal() + 1) << TUNING_SHIFT;
+		}
+		return (byte) f;
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > tickOffset.length) {
+			int capacity = Math.max(minCapacity, tickOffset.length + (tickOffset.length >> 1));
+			tickOffset = Arrays.copyOf(tickOffset, capacity);
+			tick = Arrays.copyOf(tick, capacity);
+			note = Arrays.copyOf(note, capacity);
+			velocity = Arrays.copyOf(velocity, capacity);
+			flags = Arrays.copyOf(flags, capacity);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * 末尾にノートを追加する.
+	 * @param noteEvent 追加するノート. 内容を複写し, オブジェクトは保持しない.
+	 */
+	public void add(MMLNoteEvent noteEvent) {
+		add(size, noteEvent.getTickOffset(), noteEvent.getTick(), noteEvent.getNote(), noteEvent.getVelocity(), flagsOf(noteEvent));
+	}
+
+	/**
+	 * 指定した位置にノートを挿入する.
+	 * @param index 挿入位置
+	 * @param noteEvent 追加するノート. 内容を複写し, オブジェクトは保持しない.
+	 * @param tickOffset 挿入するノートのtickOffset
+	 * @param tick 挿入するノートのtick
+	 */
+	public void add(int index, MMLNoteEvent noteEvent, int tickOffset, int tick) {
+		add(index, tickOffset, tick, noteEvent.getNote(), noteEvent.getVelocity(), flagsOf(noteEvent));
+	}
+
+	/**
+	 * 他の配列のノートを指定した位置に挿入する.
+	 * @param index 挿入位置
+	 * @param src 複写元の配列
+	 * @param srcIndex 複写元の位置
+	 * @param tickOffset 挿入するノートのtickOffset
+	 * @param tick 挿入するノートのtick
+	 */
+	public void add(int index, MMLNoteArray src, int srcIndex, int tickOffset, int tick) {
+		src.checkIndex(srcIndex);
+		add(index, tickOffset, tick, src.note[srcIndex], src.velocity[srcIndex], src.flags[srcIndex]);
+	}
+
+	private void add(int index, int tickOffset, int tick, int note, int velocity, byte flags) {
+		if ((index < 0) || (index > size)) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		ensureCapacity(size + 1);
+		int move = size - index;
+		if (move > 0) {
+			System.arraycopy(this.tickOffset, index, this.tickOffset, index + 1, move);
+			System.arraycopy(this.tick, index, this.tick, index + 1, move);
+			System.arraycopy(this.note, index, this.note, index + 1, move);
+			System.arraycopy(this.velocity, index, this.velocity, index + 1, move);
+			System.arraycopy(this.flags, index, this.flags, index + 1, move);
+		}
+		this.tickOffset[index] = tickOffset;
+		this.tick[index] = tick;
+		this.note[index] = note;
+		this.velocity[index] = velocity;
+		this.flags[index] = flags;
+		size++;
+	}
+
+	private void checkIndex(int index) {
+		if ((index < 0) || (index >= size)) {
+			throw new IndexOutOfBoundsException(index);
+		}
+	}
+
+	public int getTickOffset(int index) {
+		checkIndex(index);
+		return tickOffset[index];
+	}
+
+	public int getTick(int index) {
+		checkIndex(index);
+		return tick[index];
+	}
+
+	public void setTick(int index, int tick) {
+		checkIndex(index);
+		this.tick[index] = tick;
+	}
+
+	public int getEndTick(int index) {
+		checkIndex(index);
+		return tickOffset[index] + tick[index];
+	}
+
+	public int getNote(int index) {
+		checkIndex(index);
+		return note[index];
+	}
+
+	public int getVelocity(int index) {
+		checkIndex(index);
+		return velocity[index];
+	}
+
+	public boolean isMute(int index) {
+		checkIndex(index);
+		return (flags[index] & FLAG_MUTE) != 0;
+	}
+
+	public TuningBase getTuningBase(int index) {
+		checkIndex(index);
+		int t = (flags[index] & 0xff) >>> TUNING_SHIFT;
+		return (t == 0) ? null : TUNING_BASE[t - 1];
+	}
+
+	/**
+	 * 指定した位置のノートを新しい MMLNoteEvent として取得する.
+	 * @param index 位置
+	 * @return ノート. 配列とは独立したオブジェクト.
+	 */
+	public MMLNoteEvent get(int index) {
+		checkIndex(index);
+		var noteEvent = new MMLNoteEvent(note[index], tick[index], tickOffset[index], velocity[index]);
+		noteEvent.setTuningNote(getTuningBase(index));
+		noteEvent.setMute(isMute(index));
+		return noteEvent;
+	}
+
+	/**
+	 * MMLNoteEvent のリストとして参照する. 要素は取得のたびに生成する.
+	 * @return 読み取り専用のリスト
+	 */
+	public List<MMLNoteEvent> asList() {
+		return new NoteList();
+	}
+
+	private final class NoteList extends AbstractList<MMLNoteEvent> implements RandomAccess {
+		@Override
+		public MMLNoteEvent get(int index) {
+			return MMLNoteArray.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return asList().toString();
+	}
+}
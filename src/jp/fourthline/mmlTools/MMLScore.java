@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -9,12 +9,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Vector;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import jp.fourthline.mmlTools.core.MMLTicks;
 import jp.fourthline.mmlTools.core.MMLException;
+import jp.fourthline.mmlTools.parser.MMLParseException;
 import jp.fourthline.mmlTools.parser.MMSFile;
 
 
@@ -23,9 +28,9 @@ import jp.fourthline.mmlTools.parser.MMSFile;
  */
 public final class MMLScore implements Cloneable {
 	private final LinkedList<MMLTrack> trackList = new LinkedList<>();
-	private final List<MMLTempoEvent> globalTempoList = new ArrayList<>();
+	private final TempoList globalTempoList = new TempoList();
 	private final List<Marker> markerList = new ArrayList<>();
-	private final List<TimeSignature> timeSignatureList = new ArrayList<>();
+	private final List<TimeSignature> timeSignatureList = new TimeSignatureList();
 
 	public static final int MAX_TRACK = 24;
 
@@ -46,6 +51,95 @@ public final class MMLScore implements Cloneable {
 	public static final int MAX_USER_VIEW_MEASURE = 200;
 	private int userViewMeasure;
 
+	/** 小節計算用の拍子記号索引. 拍子, 拍子記号の変更時に破棄して, 次の参照時に作り直す. */
+	private volatile MeasureIndex measureIndex = null;
+
+	/**
+	 * 変更時に小節計算用の索引を破棄する拍子記号リスト.
+	 * {@link #getTimeSignatureList()} から直接変更された場合も索引を作り直す. (subListからの変更は対象外)
+	 */
+	private final class TimeSignatureList extends ArrayList<TimeSignature> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean add(TimeSignature e) {
+			clearMeasureIndex();
+			return super.add(e);
+		}
+
+		@Override
+		public void add(int index, TimeSignature element) {
+			clearMeasureIndex();
+			super.add(index, element);
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends TimeSignature> c) {
+			clearMeasureIndex();
+			return super.addAll(c);
+		}
+
+		@Override
+		public boolean addAll(int index, Collection<? extends TimeSignature> c) {
+			clearMeasureIndex();
+			return super.addAll(index, c);
+		}
+
+		@Override
+		public TimeSignature set(int index, TimeSignature element) {
+			clearMeasureIndex();
+			return super.set(index, element);
+		}
+
+		@Override
+		public TimeSignature remove(int index) {
+			clearMeasureIndex();
+			return super.remove(index);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			clearMeasureIndex();
+			return super.remove(o);
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> c) {
+			clearMeasureIndex();
+			return super.removeAll(c);
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> c) {
+			clearMeasureIndex();
+			return super.retainAll(c);
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super TimeSignature> filter) {
+			clearMeasureIndex();
+			return super.removeIf(filter);
+		}
+
+		@Override
+		public void replaceAll(UnaryOperator<TimeSignature> operator) {
+			clearMeasureIndex();
+			super.replaceAll(operator);
+		}
+
+		@Override
+		public void sort(Comparator<? super TimeSignature> c) {
+			clearMeasureIndex();
+			super.sort(c);
+		}
+
+		@Override
+		public void clear() {
+			clearMeasureIndex();
+			super.clear();
+		}
+	}
+
 	/**
 	 * 新たにトラックを追加します.
 	 * @param track
@@ -138,6 +232,13 @@ public final class MMLScore implements Cloneable {
 		return globalTempoList;
 	}
 
+	/**
+	 * @return テンポリストの tick と時間の変換表. テンポリストを変更した後の参照で作り直す.
+	 */
+	public TempoMap getTempoMap() {
+		return globalTempoList.getTempoMap();
+	}
+
 	public List<Marker> getMarkerList() {
 		return markerList;
 	}
@@ -146,6 +247,22 @@ public final class MMLScore implements Cloneable {
 		return timeSignatureList;
 	}
 
+	MeasureIndex getMeasureIndex() {
+		var index = measureIndex;
+		if (index == null) {
+			index = new MeasureIndex(this);
+			measureIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * 小節計算用の索引を破棄する. 拍子, 拍子記号を変更したときに呼ぶ.
+	 */
+	void clearMeasureIndex() {
+		measureIndex = null;
+	}
+
 	public void setTitle(String title) {
 		this.title = title;
 	}
@@ -166,6 +283,7 @@ public final class MMLScore implements Cloneable {
 		String[] s = baseTime.split("/");
 		this.numTime = Integer.parseInt(s[0]);
 		this.baseTime = Integer.parseInt(s[1]);
+		clearMeasureIndex();
 		TimeSignature.recalcTimeSignatureList(this);
 	}
 
@@ -175,6 +293,7 @@ public final class MMLScore implements Cloneable {
 
 	public void setBaseOnly(int base) {
 		baseTime = base;
+		clearMeasureIndex();
 		TimeSignature.recalcTimeSignatureList(this);
 	}
 
@@ -184,6 +303,7 @@ public final class MMLScore implements Cloneable {
 
 	public void setTimeCountOnly(int value) {
 		numTime = value;
+		clearMeasureIndex();
 		TimeSignature.recalcTimeSignatureList(this);
 	}
 
@@ -298,7 +418,7 @@ public final class MMLScore implements Cloneable {
 	 */
 	public long getTotalTime() {
 		int totalTick = getTotalTickLength();
-		return Math.round(MMLTempoConverter.getTimeOnTickOffset(globalTempoList, totalTick));
+		return Math.round(getTempoMap().getTimeOnTickOffset(totalTick));
 	}
 
 	public byte[] getObjectState() {
@@ -316,6 +436,51 @@ public final class MMLScore implements Cloneable {
 		}
 	}
 
+	/**
+	 * MMLのparseを行わずに復元できるバイナリ形式のスナップショットを取得する.
+	 * @return スナップショット
+	 * @see MMLScoreSnapshot
+	 */
+	public byte[] getSnapshot() {
+		return MMLScoreSnapshot.write(this);
+	}
+
+	/**
+	 * トラックごとに分けたスナップショットを取得する. 前回から内容が変わっていないトラックは, 前回と同じ配列を使用する.
+	 * @return スナップショット
+	 * @see MMLScoreSnapshot#writeParts(MMLScore)
+	 */
+	public MMLScoreSnapshot.Parts getSnapshotParts() {
+		return MMLScoreSnapshot.writeParts(this);
+	}
+
+	/**
+	 * スナップショットの状態に戻す. 復元前のトラックと同じ内容のトラックは, generate時に前回の結果を再利用する.
+	 * @param snapshot {@link #getSnapshot()} で取得したスナップショット
+	 */
+	public void putSnapshot(byte[] snapshot) {
+		try {
+			putSnapshot(MMLScoreSnapshot.split(snapshot));
+		} catch (MMLParseException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * スナップショットの状態に戻す. 復元前のトラックと同じ内容のトラックは, generate時に前回の結果を再利用する.
+	 * @param snapshot {@link #getSnapshotParts()} で取得したスナップショット
+	 */
+	public void putSnapshot(MMLScoreSnapshot.Parts snapshot) {
+		var oldTracks = new ArrayList<>(trackList);
+		try {
+			MMLScoreSnapshot.read(this, snapshot);
+			trackList.forEach(t -> t.setFix64(fix64Tempo));
+			MMLTrack.inheritGenerateResult(trackList, oldTracks);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
 	public List<MMLNoteEvent[]> getNoteListOnTickOffset(long tick) {
 		ArrayList<MMLNoteEvent[]> noteListArray = new ArrayList<>();
 		for (MMLTrack track : this.getTrackList()) {
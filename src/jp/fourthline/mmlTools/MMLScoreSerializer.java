@@ -309,14 +309,15 @@ public final class MMLScoreSerializer extends AbstractMMLParser {
 			for (int i = 0; i < count; i++) {
 				var eventList = new MMLEventList("");
 				int noteCount = in.readInt();
+				var noteList = new ArrayList<MMLNoteEvent>(noteCount);
 				for (int j = 0; j < noteCount; j++) {
 					int note = in.readShort();
 					int tickOffset = in.readInt();
 					int tick = in.readInt();
 					int velocity = in.readShort();
-					var event = new MMLNoteEvent(note, tick, tickOffset, velocity);
-					eventList.addMMLNoteEvent(event);
+					noteList.add(new MMLNoteEvent(note, tick, tickOffset, velocity));
 				}
+				eventList.addAll(noteList);
 				list.add(eventList);
 			}
 
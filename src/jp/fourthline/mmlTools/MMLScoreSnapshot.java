@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jp.fourthline.mmlTools.core.MMLException;
+import jp.fourthline.mmlTools.core.TuningBase;
+import jp.fourthline.mmlTools.parser.MMLParseException;
+
+/**
+ * MMLScoreのバイナリスナップショット.
+ * <p>
+ * MMLScoreSerializer と同じ内容を保持するが, ノートはパートごとにint配列としてそのまま保持し,
+ * 復元時にMMLのparseを行わない. Undo/Redoでの状態復元用.
+ * </p>
+ */
+public final class MMLScoreSnapshot {
+	private static final int MAGIC = 0x4D4D4C53; // "MMLS"
+	private static final int VERSION = 2;
+
+	/** ノートあたりのint数: tickOffset, tick, note, velocity|tuningBase, indexOfMMLString[0], indexOfMMLString[1] */
+	private static final int NOTE_INTS = 6;
+
+	private static final TuningBase[] TUNING_BASE = TuningBase.values();
+
+	/**
+	 * トラックごとに分けたスナップショット.
+	 * <p>
+	 * header はトラック以外のスコアの情報 (タイトル, テンポ, マーカー, 拍子記号) を持つ.
+	 * 前回のスナップショット作成時から内容が変わっていないトラックは, 前回と同じ配列を使用する.
+	 * </p>
+	 * @param header  トラック以外のスコアの情報
+	 * @param tracks  トラックごとの情報
+	 */
+	public record Parts(byte[] header, byte[][] tracks) {
+		/**
+		 * 内容が一致するかどうか. 同じ配列を使用しているトラックは比較しない.
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Parts o) || !Arrays.equals(header, o.header) || (tracks.length != o.tracks.length)) {
+				return false;
+			}
+			for (int i = 0; i < tracks.length; i++) {
+				if ((tracks[i] != o.tracks[i]) && !Arrays.equals(tracks[i], o.tracks[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(header) * 31 + Arrays.deepHashCode(tracks);
+		}
+	}
+
+	private MMLScoreSnapshot() {}
+
+	/**
+	 * @param score 対象のスコア
+	 * @return トラックごとに分けたスナップショット
+	 */
+	public static Parts writeParts(MMLScore score) {
+		var trackList = score.getTrackList();
+		byte[][] tracks = new byte[trackList.size()][];
+		int i = 0;
+		for (MMLTrack track : trackList) {
+			tracks[i++] = trackSnapshot(track);
+		}
+		return new Parts(writeHeader(score), tracks);
+	}
+
+	/**
+	 * @param score 対象のスコア
+	 * @return スナップショット
+	 */
+	public static byte[] write(MMLScore score) {
+		Parts parts = writeParts(score);
+		var bstream = new ByteArrayOutputStream(4096);
+		var out = new DataOutputStream(bstream);
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(parts.header().length);
+			out.write(parts.header());
+			out.writeInt(parts.tracks().length);
+			for (byte[] track : parts.tracks()) {
+				out.writeInt(track.length);
+				out.write(track);
+			}
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		return bstream.toByteArray();
+	}
+
+	private static byte[] writeHeader(MMLScore score) {
+		var bstream = new ByteArrayOutputStream(256);
+		var out = new DataOutputStream(bstream);
+		try {
+			writeString(out, score.getTitle());
+			writeString(out, score.getAuthor());
+			writeString(out, score.getBaseTime());
+
+			var tempoList = score.getTempoEventList();
+			out.writeInt(tempoList.size());
+			for (MMLTempoEvent tempo : tempoList) {
+				out.writeInt(tempo.getTickOffset());
+				out.writeInt(tempo.getTempo());
+			}
+
+			var markerList = score.getMarkerList();
+			out.writeInt(markerList.size());
+			for (Marker marker : markerList) {
+				out.writeInt(marker.getTickOffset());
+				writeString(out, marker.getName());
+			}
+
+			var timeSignatureList = score.getTimeSignatureList();
+			out.writeInt(timeSignatureList.size());
+			for (TimeSignature ts : timeSignatureList) {
+				out.writeInt(ts.getTickOffset());
+				writeString(out, ts.toMMLString());
+			}
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+		return bstream.toByteArray();
+	}
+
+	/**
+	 * トラックのスナップショット. フィンガープリントが前回と同じ場合は, 前回作成したものをそのまま返す.
+	 */
+	private static byte[] trackSnapshot(MMLTrack track) {
+		long fingerprint = trackFingerprint(track);
+		byte[] snapshot = track.getSnapshot(fingerprint);
+		if (snapshot == null) {
+			var bstream = new ByteArrayOutputStream(1024);
+			try {
+				writeTrack(new DataOutputStream(bstream), track);
+			} catch (IOException e) {
+				throw new AssertionError(e);
+			}
+			snapshot = bstream.toByteArray();
+			track.setSnapshot(fingerprint, snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * スナップショットに書き出す内容のフィンガープリント
+	 */
+	private static long trackFingerprint(MMLTrack track) {
+		long h = 0xcbf29ce484222325L;
+		h = MMLTrack.fingerprintMix(h, track.getCommonStartOffset());
+		h = MMLTrack.fingerprintMix(h, track.getStartDelta());
+		h = MMLTrack.fingerprintMix(h, track.getStartSongDelta());
+		h = fingerprintString(h, track.getOriginalMML());
+		h = fingerprintString(h, track.getImportedData());
+		h = fingerprintString(h, track.getTrackName());
+		h = MMLTrack.fingerprintMix(h, ((long)track.getProgram() << 32) | (track.getSongProgram() & 0xffffffffL));
+		h = MMLTrack.fingerprintMix(h, ((long)track.getPanpot() << 32) | (track.getVolume() & 0xffffffffL));
+		h = MMLTrack.fingerprintMix(h, ((long)track.getAttackDelayCorrect() << 32) | (track.getAttackSongDelayCorrect() & 0xffffffffL));
+		h = MMLTrack.fingerprintMix(h, (track.isVisible() ? 1 : 0) | (track.getDisableNopt() ? 2 : 0) | (track.getOptTempoMelodyOnly() ? 4 : 0));
+		for (MMLEventList eventList : track.getMMLEventList()) {
+			h = MMLTrack.fingerprintMix(h, -1L);
+			for (MMLNoteEvent note : eventList.getMMLNoteEventList()) {
+				var base = note.getTuningBase();
+				var index = note.getIndexOfMMLString();
+				h = MMLTrack.fingerprintMix(h, ((long)note.getTickOffset() << 32) | (note.getTick() & 0xffffffffL));
+				h = MMLTrack.fingerprintMix(h, ((long)note.getNote() << 32) | (note.getVelocity() << 8) | ((base != null) ? base.ordinal() + 1 : 0));
+				h = MMLTrack.fingerprintMix(h, (index != null) ? ((long)index[0] << 32) | (index[1] & 0xffffffffL) : -1L);
+			}
+		}
+		return h;
+	}
+
+	private static long fingerprintString(long h, String s) {
+		if (s == null) {
+			return MMLTrack.fingerprintMix(h, -1L);
+		}
+		h = MMLTrack.fingerprintMix(h, s.length());
+		int length = s.length();
+		for (int i = 0; i < length; i += 4) {
+			long value = 0;
+			for (int j = i; j < Math.min(i + 4, length); j++) {
+				value = (value << 16) | s.charAt(j);
+			}
+			h = MMLTrack.fingerprintMix(h, value);
+		}
+		return h;
+	}
+
+	private static void writeTrack(DataOutputStream out, MMLTrack track) throws IOException {
+		out.writeInt(track.getCommonStartOffset());
+		out.writeInt(track.getStartDelta());
+		out.writeInt(track.getStartSongDelta());
+		writeString(out, track.getOriginalMML());
+		writeString(out, track.getImportedData());
+		writeString(out, track.getTrackName());
+		out.writeInt(track.getProgram());
+		out.writeInt(track.getSongProgram());
+		out.writeInt(track.getPanpot());
+		out.writeInt(track.getVolume());
+		out.writeInt(track.getAttackDelayCorrect());
+		out.writeInt(track.getAttackSongDelayCorrect());
+		out.writeInt((track.isVisible() ? 1 : 0) | (track.getDisableNopt() ? 2 : 0) | (track.getOptTempoMelodyOnly() ? 4 : 0));
+
+		var partList = track.getMMLEventList();
+		out.writeInt(partList.size());
+		for (MMLEventList eventList : partList) {
+			var noteList = eventList.getMMLNoteEventList();
+			int[] data = new int[noteList.size() * NOTE_INTS];
+			int i = 0;
+			for (MMLNoteEvent note : noteList) {
+				var base = note.getTuningBase();
+				var index = note.getIndexOfMMLString();
+				data[i++] = note.getTickOffset();
+				data[i++] = note.getTick();
+				data[i++] = note.getNote();
+				data[i++] = note.getVelocity() | ((base != null) ? (base.ordinal() + 1) << 8 : 0);
+				data[i++] = (index != null) ? index[0] : -1;
+				data[i++] = (index != null) ? index[1] : -1;
+			}
+			var buffer = ByteBuffer.allocate(data.length * Integer.BYTES);
+			buffer.asIntBuffer().put(data);
+			out.writeInt(noteList.size());
+			out.write(buffer.array());
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] b = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(b.length);
+			out.write(b);
+		}
+	}
+
+	/**
+	 * スナップショットの内容でスコアを置き換える.
+	 * @param score 対象のスコア
+	 * @param data  スナップショット
+	 * @throws MMLParseException 不正なスナップショット
+	 */
+	public static void read(MMLScore score, byte[] data) throws MMLParseException {
+		read(score, split(data));
+	}
+
+	/**
+	 * {@link #write(MMLScore)} で作成したスナップショットをトラックごとに分ける.
+	 * @param data  スナップショット
+	 * @return トラックごとに分けたスナップショット
+	 * @throws MMLParseException 不正なスナップショット
+	 */
+	public static Parts split(byte[] data) throws MMLParseException {
+		try {
+			var in = ByteBuffer.wrap(data);
+			if ((in.getInt() != MAGIC) || (in.getInt() != VERSION)) {
+				throw new MMLParseException("invalid snapshot");
+			}
+			byte[] header = readBytes(in);
+			byte[][] tracks = new byte[in.getInt()][];
+			for (int i = 0; i < tracks.length; i++) {
+				tracks[i] = readBytes(in);
+			}
+			return new Parts(header, tracks);
+		} catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+			throw new MMLParseException("invalid snapshot: " + e.getMessage());
+		}
+	}
+
+	private static byte[] readBytes(ByteBuffer in) {
+		byte[] b = new byte[in.getInt()];
+		in.get(b);
+		return b;
+	}
+
+	/**
+	 * トラックごとに分けたスナップショットの内容でスコアを置き換える.
+	 * 復元したトラックは, 復元元の配列を自身のスナップショットとして保持する.
+	 * @param score 対象のスコア
+	 * @param parts スナップショット
+	 * @throws MMLParseException 不正なスナップショット
+	 */
+	public static void read(MMLScore score, Parts parts) throws MMLParseException {
+		try {
+			var in = ByteBuffer.wrap(parts.header());
+			score.getTempoEventList().clear();
+			score.getTrackList().clear();
+			score.getMarkerList().clear();
+			score.getTimeSignatureList().clear();
+
+			score.setTitle(readString(in));
+			score.setAuthor(readString(in));
+			score.setBaseTime(readString(in));
+
+			var tempoList = score.getTempoEventList();
+			int tempoCount = in.getInt();
+			for (int i = 0; i < tempoCount; i++) {
+				int tickOffset = in.getInt();
+				tempoList.add(new MMLTempoEvent(in.getInt(), tickOffset));
+			}
+
+			var markerList = score.getMarkerList();
+			int markerCount = in.getInt();
+			for (int i = 0; i < markerCount; i++) {
+				int tickOffset = in.getInt();
+				markerList.add(new Marker(readString(in), tickOffset));
+			}
+
+			int timeSignatureCount = in.getInt();
+			for (int i = 0; i < timeSignatureCount; i++) {
+				int tickOffset = in.getInt();
+				String[] sig = readString(in).split("/");
+				score.addTimeSignature(new TimeSignature(score, tickOffset, sig[0], sig[1]));
+			}
+
+			for (byte[] snapshot : parts.tracks()) {
+				var track = readTrack(ByteBuffer.wrap(snapshot));
+				score.addTrack(track);
+				track.setSnapshot(trackFingerprint(track), snapshot);
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException | MMLException e) {
+			throw new MMLParseException("invalid snapshot: " + e.getMessage());
+		}
+	}
+
+	private static MMLTrack readTrack(ByteBuffer in) {
+		int commonStartOffset = in.getInt();
+		int startDelta = in.getInt();
+		int startSongDelta = in.getInt();
+		String mml = readString(in);
+		String importedData = readString(in);
+		String trackName = readString(in);
+		int program = in.getInt();
+		int songProgram = in.getInt();
+		int panpot = in.getInt();
+		int volume = in.getInt();
+		int attackDelayCorrect = in.getInt();
+		int attackSongDelayCorrect = in.getInt();
+		int flags = in.getInt();
+
+		int partCount = in.getInt();
+		List<MMLEventList> partList = new ArrayList<>(partCount);
+		for (int i = 0; i < partCount; i++) {
+			int noteCount = in.getInt();
+			int[] data = new int[noteCount * NOTE_INTS];
+			in.asIntBuffer().get(data);
+			in.position(in.position() + data.length * Integer.BYTES);
+
+			var noteList = new ArrayList<MMLNoteEvent>(noteCount);
+			for (int j = 0; j < data.length; j += NOTE_INTS) {
+				var note = new MMLNoteEvent(data[j+2], data[j+1], data[j], data[j+3] & 0xff);
+				int base = data[j+3] >>> 8;
+				if (base > 0) {
+					note.setTuningNote(TUNING_BASE[base - 1]);
+				}
+				if (data[j+4] >= 0) {
+					note.setIndexOfMMLString(new int[] { data[j+4], data[j+5] });
+				}
+				noteList.add(note);
+			}
+			var eventList = new MMLEventList("");
+			eventList.getMMLNoteEventList().addAll(noteList);
+			partList.add(eventList);
+		}
+
+		var track = MMLTrack.restore(commonStartOffset, startDelta, startSongDelta, mml, partList);
+		track.setImportedData(importedData);
+		track.setTrackName(trackName);
+		track.setProgram(program);
+		track.setSongProgram(songProgram);
+		track.setPanpot(panpot);
+		track.setVolume(volume);
+		track.setAttackDelayCorrect(attackDelayCorrect);
+		track.setAttackSongDelayCorrect(attackSongDelayCorrect);
+		track.setVisible((flags & 1) != 0);
+		track.setDisableNopt((flags & 2) != 0);
+		track.setOptTempoOnlyMelody((flags & 4) != 0);
+		return track;
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String s = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return s;
+	}
+}
@@ -1,41 +1,55 @@
 /*
- * Copyright (C) 2022 たんらる
+ * Copyright (C) 2022-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 import jp.fourthline.mmlTools.core.IllegalTickOffsetException;
-import jp.fourthline.mmlTools.core.MMLTickTable;
 
 public final class MMLTempoConverter {
 
-	private final List<MMLTempoEvent> oldTempoList;
+	private final TempoMap oldTempoMap;
 	private final List<MMLTempoEvent> newTempoList;
-	private double convertD = 0.0;
-	private int convertDCount = 0;
+	private final TempoMap newTempoMap;
+	/** 変換による丸め誤差 (tick): 並列に変換するため, ロックを使わずに集計する. */
+	private final DoubleAdder convertD = new DoubleAdder();
+	private final LongAdder convertDCount = new LongAdder();
+	private final DoubleAccumulator convertDMax = new DoubleAccumulator(Math::max, 0.0);
 
 	MMLTempoConverter(List<MMLTempoEvent> oldTempoList, List<MMLTempoEvent> newTempoList) {
-		this.oldTempoList = oldTempoList;
+		this.oldTempoMap = TempoMap.get(oldTempoList);
 		this.newTempoList =  new ArrayList<>();
-		newTempoList.forEach(t -> this.newTempoList.add(new MMLTempoEvent(t.getTempo(), convertEvent(t.getTickOffset(), false))));
+		var builder = new TempoMap.Builder(newTempoList.size());
+		for (MMLTempoEvent t : newTempoList) {
+			// 変換済みのテンポで次のテンポ位置を求める
+			var tempoEvent = new MMLTempoEvent(t.getTempo(), roundTick(builder.getTickOffsetOnTime(oldTempoMap.getTimeOnTickOffset(t.getTickOffset())), false));
+			this.newTempoList.add(tempoEvent);
+			builder.add(tempoEvent);
+		}
+		this.newTempoMap = TempoMap.of(this.newTempoList);
 	}
 
 	int convertEvent(int value, boolean diff) {
-		double newTick = getTickOffsetOnTime(newTempoList,
-				getTimeOnTickOffset(oldTempoList, value));
+		return roundTick(newTempoMap.getTickOffsetOnTime(oldTempoMap.getTimeOnTickOffset(value)), diff);
+	}
+
+	private int roundTick(double newTick, boolean diff) {
 		long r = (long) Math.round(newTick);
 		if (Math.abs(r) > MMLEvent.MAX_TICK) {
 			throw new IllegalTickOffsetException((int)r);
 		}
 		int tick = (int)r;
 		if (diff) {
-			synchronized(this) {
-				convertD += Math.abs(newTick - tick);
-				convertDCount++;
-			}
+			double d = Math.abs(newTick - tick);
+			convertD.add(d);
+			convertDCount.increment();
+			convertDMax.accumulate(d);
 		}
 		return tick;
 	}
@@ -44,15 +58,15 @@ public final class MMLTempoConverter {
 		List<MMLTempoEvent> tempoList = score.getTempoEventList();
 		var converter = new MMLTempoConverter(tempoList, newTempoList);
 
-		// 変換する
-		score.getTrackList().parallelStream().forEach(track -> {
-			for (var eventList : track.getMMLEventList()) {
-				for (var noteEvent : eventList.getMMLNoteEventList()) {
-					int endTick = converter.convertEvent(noteEvent.getEndTick(), true);
-					int tickOffset = converter.convertEvent(noteEvent.getTickOffset(), true);
-					noteEvent.setTickOffset(tickOffset);
-					noteEvent.setTick(endTick - tickOffset);
-				}
+		// 変換する (トラック, パート単位で並列). flatMap した並列ストリームは内側を分割しないので, 先に全パートのリストを作る.
+		var partList = new ArrayList<MMLEventList>();
+		score.getTrackList().forEach(track -> partList.addAll(track.getMMLEventList()));
+		partList.parallelStream().forEach(eventList -> {
+			for (var noteEvent : eventList.getMMLNoteEventList()) {
+				int endTick = converter.convertEvent(noteEvent.getEndTick(), true);
+				int tickOffset = converter.convertEvent(noteEvent.getTickOffset(), true);
+				noteEvent.setTickOffset(tickOffset);
+				noteEvent.setTick(endTick - tickOffset);
 			}
 		});
 
@@ -66,8 +80,18 @@ public final class MMLTempoConverter {
 		return converter;
 	}
 
+	/**
+	 * @return 丸め誤差の合計/変換数
+	 */
 	public String getConversionDiff() {
-		return String.format("%.3f/%d", convertD, convertDCount);
+		return String.format("%.3f/%d", convertD.sum(), convertDCount.sum());
+	}
+
+	/**
+	 * @return 1回の変換での丸め誤差の最大値 (tick)
+	 */
+	public double getMaxConversionDiff() {
+		return convertDMax.get();
 	}
 
 	/**
@@ -77,27 +101,7 @@ public final class MMLTempoConverter {
 	 * @return 先頭からの時間（ms）
 	 */
 	public static double getTimeOnTickOffset(List<MMLTempoEvent> tempoList, int tickOffset) {
-		double totalTime = 0L;
-
-		int tempo = MMLTempoEvent.INITIAL_TEMPO;
-		int currentTick = 0;
-		for (MMLTempoEvent tempoEvent : tempoList) {
-			int currentTempoTick = tempoEvent.getTickOffset();
-			if (tickOffset < currentTempoTick) {
-				break;
-			}
-
-			int currentTempo = tempoEvent.getTempo();
-			if (tempo != currentTempo) {
-				totalTime += (currentTempoTick - currentTick) * 60000.0 / tempo;
-				currentTick = currentTempoTick;
-			}
-
-			tempo = currentTempo;
-		}
-
-		totalTime += (tickOffset - currentTick) * 60000.0 / tempo;
-		return totalTime / MMLTickTable.TPQN;
+		return TempoMap.get(tempoList).getTimeOnTickOffset(tickOffset);
 	}
 
 	/**
@@ -107,20 +111,6 @@ public final class MMLTempoConverter {
 	 * @return tickオフセット
 	 */
 	public static double getTickOffsetOnTime(List<MMLTempoEvent> tempoList, double time) {
-		int tempo = MMLTempoEvent.INITIAL_TEMPO;
-		double pointTime = 0;
-		double tick = 0;
-		for (MMLTempoEvent tempoEvent : tempoList) {
-			double tempoTime = getTimeOnTickOffset(tempoList, tempoEvent.getTickOffset());
-			if (time <= tempoTime) {
-				break;
-			}
-			pointTime = tempoTime;
-			tempo = tempoEvent.getTempo();
-			tick = tempoEvent.getTickOffset();
-		}
-
-		tick += (time - pointTime) * MMLTickTable.TPQN * tempo / 60 / 1000;
-		return tick;
+		return TempoMap.get(tempoList).getTickOffsetOnTime(time);
 	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2023 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -7,6 +7,8 @@ package jp.fourthline.mmlTools;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public final class MMLTempoEvent extends MMLEvent implements Cloneable {
@@ -17,6 +19,13 @@ public final class MMLTempoEvent extends MMLEvent implements Cloneable {
 	public static final int META = 0x51;  /* MIDI meta: tempo */
 	public static final int INITIAL_TEMPO = 120;
 
+	/** テンポイベントの変更回数. テンポリストが保持する変換表の更新判定に使う. */
+	private static final AtomicInteger modification = new AtomicInteger();
+
+	static int getModification() {
+		return modification.get();
+	}
+
 	public MMLTempoEvent(int tempo, int tickOffset) throws IllegalArgumentException {
 		this(tempo, tickOffset, false);
 	}
@@ -36,6 +45,13 @@ public final class MMLTempoEvent extends MMLEvent implements Cloneable {
 
 	public void setTempo(int tempo) {
 		this.tempo = tempo;
+		modification.incrementAndGet();
+	}
+
+	@Override
+	public void setTickOffset(int tickOffset) {
+		super.setTickOffset(tickOffset);
+		modification.incrementAndGet();
 	}
 
 	public byte[] getMetaData() {
@@ -75,17 +91,10 @@ public final class MMLTempoEvent extends MMLEvent implements Cloneable {
 	 * @param list
 	 */
 	public void appendToListElement(List<MMLTempoEvent> list) {
-		int index = 0;
 		int targetOffset = getTickOffset();
-
-		for ( ; index < list.size(); index++) {
-			MMLTempoEvent tempoEvent = list.get(index);
-			if (tempoEvent.getTickOffset() == targetOffset) {
-				list.remove(index);
-				break;
-			} else if (tempoEvent.getTickOffset() > targetOffset) {
-				break;
-			}
+		int index = firstIndexOnOrAfter(list, targetOffset);
+		if ( (index < list.size()) && (list.get(index).getTickOffset() == targetOffset) ) {
+			list.remove(index);
 		}
 
 		// 連続で同じテンポであれば追加しない
@@ -104,28 +113,44 @@ public final class MMLTempoEvent extends MMLEvent implements Cloneable {
 		return list2;
 	}
 
-	public static int searchOnTick(List<MMLTempoEvent> tempoList, long tickOffset) {
-		int tempo = INITIAL_TEMPO;
-		for (MMLTempoEvent tempoEvent : tempoList) {
-			if (tickOffset < tempoEvent.getTickOffset()) {
-				break;
+	/**
+	 * tickOffset順のテンポリストから, 指定位置以降で最初のテンポのindexを求める.
+	 * RandomAccessなリストは二分探索, それ以外は先頭から探索する.
+	 * @return 該当するテンポがない場合は list.size()
+	 */
+	private static int firstIndexOnOrAfter(List<MMLTempoEvent> list, long tickOffset) {
+		if (list instanceof RandomAccess) {
+			int low = 0;
+			int high = list.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (list.get(mid).getTickOffset() < tickOffset) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
 			}
+			return low;
+		}
 
-			tempo = tempoEvent.getTempo();
+		int index = 0;
+		for (MMLTempoEvent tempoEvent : list) {
+			if (tempoEvent.getTickOffset() >= tickOffset) {
+				break;
+			}
+			index++;
 		}
+		return index;
+	}
 
-		return tempo;
+	public static int searchOnTick(List<MMLTempoEvent> tempoList, long tickOffset) {
+		int index = firstIndexOnOrAfter(tempoList, tickOffset + 1) - 1;
+		return (index >= 0) ? tempoList.get(index).getTempo() : INITIAL_TEMPO;
 	}
 
 	public static boolean searchEqualsTick(List<MMLTempoEvent> tempoList, long tickOffset) {
-		for (MMLTempoEvent tempo : tempoList) {
-			if (tempo.getTickOffset() == tickOffset) {
-				return true;
-			} else if (tempo.getTickOffset() > tickOffset) {
-				break;
-			}
-		}
-		return false;
+		int index = firstIndexOnOrAfter(tempoList, tickOffset);
+		return (index < tempoList.size()) && (tempoList.get(index).getTickOffset() == tickOffset);
 	}
 
 	/**
@@ -134,15 +159,12 @@ public final class MMLTempoEvent extends MMLEvent implements Cloneable {
 	 * @return
 	 */
 	public static MMLTempoEvent getMaxTempoEvent(List<MMLTempoEvent> tempoList) {
-		MMLTempoEvent maxEvent = new MMLTempoEvent(INITIAL_TEMPO, 0);
+		int maxTempo = INITIAL_TEMPO;
 		for (MMLTempoEvent tempoEvent : tempoList) {
-			int currentTempo = tempoEvent.getTempo();
-			if (maxEvent.getTempo() < currentTempo) {
-				maxEvent.setTempo(currentTempo);
-			}
+			maxTempo = Math.max(maxTempo, tempoEvent.getTempo());
 		}
 
-		return maxEvent;
+		return new MMLTempoEvent(maxTempo, 0);
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -7,10 +7,13 @@ package jp.fourthline.mmlTools;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 
 import jp.fourthline.mmlTools.core.MMLText;
 import jp.fourthline.mmlTools.core.MMLTicks;
@@ -26,14 +29,31 @@ public final class MMLTrack implements Serializable, Cloneable {
 	public static final int NO_CHORUS = -1;
 	public static final int EXCLUDE_SONG = -2;
 
+	/** MML生成, ファイル読み込み時に参照する楽器情報 */
+	private static volatile IInstCatalog instCatalog = IInstCatalog.NONE;
+
+	/**
+	 * 楽器情報を設定する. 和音へのテンポ出力, 打楽器モーション用の休符処理の判定も楽器情報を参照するようにする.
+	 * @param catalog 楽器情報
+	 */
+	public static void setInstCatalog(IInstCatalog catalog) {
+		instCatalog = (catalog != null) ? catalog : IInstCatalog.NONE;
+		tempoAllowChordPartFunction = t -> instCatalog.allowTempoChordPart(t);
+		percussionMotionFix = t -> instCatalog.percussionMotionFix(t);
+	}
+
+	public static IInstCatalog getInstCatalog() {
+		return instCatalog;
+	}
+
 	/** program番号から和音へのテンポ出力が可能かどうかの判定を行うためのFunction */
-	private static IntFunction<Boolean> tempoAllowChordPartFunction = t -> true;
+	private static IntFunction<Boolean> tempoAllowChordPartFunction = t -> instCatalog.allowTempoChordPart(t);
 	public static void setTempoAllowChordPartFunction(IntFunction<Boolean> f) {
 		tempoAllowChordPartFunction = f;
 	}
 
 	/** program番号から打楽器モーション用の休符処理をするかどうかの判定を行うためのFunction */
-	public static IntFunction<Boolean> percussionMotionFix = t -> false;
+	public static IntFunction<Boolean> percussionMotionFix = t -> instCatalog.percussionMotionFix(t);
 	public static void setPercussionMotionFixFunction(IntFunction<Boolean> f) {
 		percussionMotionFix = f;
 	}
@@ -77,6 +97,15 @@ public final class MMLTrack implements Serializable, Cloneable {
 	// インポートしたデータ: ドラム変換を多重実行したときに変換対象にするデータ.
 	private String importedData;
 
+	// generate結果のキャッシュ: 内容のフィンガープリントが一致する場合は再生成しない.
+	private long generatedFingerprint = 0;
+	private String[] generatedOriginalText = null;
+	private String[] generatedMabiText = null;
+
+	// スナップショットのキャッシュ: 内容のフィンガープリントが一致する場合は再作成しない.
+	private long snapshotFingerprint = 0;
+	private byte[] snapshot = null;
+
 	public MMLTrack() {
 		this(0, 0, 0);
 	}
@@ -138,6 +167,49 @@ public final class MMLTrack implements Serializable, Cloneable {
 		return this;
 	}
 
+	/**
+	 * MMLのparseを行わずに, 指定したノートでトラックを復元する. (スナップショット用)
+	 * @param mml    オリジナルMML
+	 * @param parts  mmlをparseした結果と同じ内容のパートリスト
+	 */
+	static MMLTrack restore(int commonStartOffset, int startDelta, int startSongDelta, String mml, List<MMLEventList> parts) {
+		var track = new MMLTrack(commonStartOffset, startDelta, startSongDelta);
+		track.originalMML.setMMLText(mml);
+		track.mmlParts.clear();
+		for (MMLEventList eventList : parts) {
+			eventList.setGlobalTempoList(track.globalTempoList);
+			track.mmlParts.add(eventList);
+		}
+		track.generated = false;
+		return track;
+	}
+
+	/**
+	 * 復元したトラックに, 同じ内容だった以前のトラックのgenerate結果を引き継ぐ. (スナップショット用)
+	 * 引き継いだ結果は, generate時に内容のフィンガープリントが一致する場合のみ使用する.
+	 * @param tracks     復元したトラック
+	 * @param oldTracks  復元前のトラック
+	 */
+	static void inheritGenerateResult(List<MMLTrack> tracks, List<MMLTrack> oldTracks) {
+		var map = new HashMap<Long, MMLTrack>();
+		for (MMLTrack old : oldTracks) {
+			if (old.generatedOriginalText != null) {
+				map.put(old.generatedFingerprint, old);
+			}
+		}
+		if (map.isEmpty()) {
+			return;
+		}
+		for (MMLTrack track : tracks) {
+			MMLTrack old = map.get(track.contentFingerprint());
+			if (old != null) {
+				track.generatedFingerprint = old.generatedFingerprint;
+				track.generatedOriginalText = old.generatedOriginalText;
+				track.generatedMabiText = old.generatedMabiText;
+			}
+		}
+	}
+
 	public void setImportedData(String str) {
 		importedData = str;
 	}
@@ -206,6 +278,13 @@ public final class MMLTrack implements Serializable, Cloneable {
 		return this.globalTempoList;
 	}
 
+	/**
+	 * @return テンポリストの tick と時間の変換表. スコアに追加したトラックはスコアの変換表を使う.
+	 */
+	public TempoMap getTempoMap() {
+		return TempoMap.get(globalTempoList);
+	}
+
 	public MMLTrack setProgram(int program) {
 		this.program = program;
 		return this;
@@ -351,6 +430,16 @@ public final class MMLTrack implements Serializable, Cloneable {
 	}
 
 	public MMLTrack generate() throws MMLExceptionList, MMLVerifyException {
+		long fingerprint = contentFingerprint();
+		if ((generatedOriginalText != null) && (generatedFingerprint == fingerprint)) {
+			// 前回のgenerateから変更がないので, 結果を再利用する.
+			originalMML.setMMLText(generatedOriginalText);
+			mabiMML.setMMLText(generatedMabiText);
+			generated = true;
+			return this;
+		}
+		generatedOriginalText = null;
+
 		String mml1 = getOriginalMML();
 		try {
 			originalMML.setMMLText(getMMLStrings(false, false));
@@ -376,9 +465,80 @@ public final class MMLTrack implements Serializable, Cloneable {
 		}
 		mabiMML.setMMLText(mmlStrings);
 		generated = true;
+
+		generatedFingerprint = fingerprint;
+		generatedOriginalText = textArray(originalMML);
+		generatedMabiText = textArray(mabiMML);
 		return this;
 	}
 
+	private static String[] textArray(MMLText text) {
+		String[] array = new String[ PART_COUNT ];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = text.getText(i);
+		}
+		return array;
+	}
+
+	/**
+	 * @param fingerprint スナップショットに書き出す内容のフィンガープリント
+	 * @return フィンガープリントが一致する場合は前回のスナップショット, 一致しない場合はnull
+	 */
+	byte[] getSnapshot(long fingerprint) {
+		return ((snapshot != null) && (snapshotFingerprint == fingerprint)) ? snapshot : null;
+	}
+
+	/**
+	 * @param fingerprint スナップショットに書き出した内容のフィンガープリント
+	 * @param snapshot    スナップショット
+	 */
+	void setSnapshot(long fingerprint, byte[] snapshot) {
+		this.snapshotFingerprint = fingerprint;
+		this.snapshot = snapshot;
+	}
+
+	static long fingerprintMix(long h, long value) {
+		// FNV-1a 64bit
+		for (int i = 0; i < 8; i++) {
+			h ^= (value >>> (i * 8)) & 0xff;
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+
+	/**
+	 * generate結果に影響する内容のフィンガープリントを計算する.
+	 * ノート, テンポ, オフセット, プログラム, 各種オプション, およびMML生成に関わるグローバル設定を含む.
+	 * @return フィンガープリント
+	 */
+	private long contentFingerprint() {
+		long h = 0xcbf29ce484222325L;
+		h = fingerprintMix(h, commonStartOffset);
+		h = fingerprintMix(h, startDelta);
+		h = fingerprintMix(h, startSongDelta);
+		h = fingerprintMix(h, attackDelayCorrect);
+		h = fingerprintMix(h, attackSongDelayCorrect);
+		h = fingerprintMix(h, program);
+		h = fingerprintMix(h, songProgram);
+		h = fingerprintMix(h, (disableNopt ? 1 : 0) | (fix64Tempo ? 2 : 0) | (optTempoOnlyMelody ? 4 : 0));
+		h = fingerprintMix(h, (tempoAllowChordPartFunction.apply(program) ? 1 : 0) | (percussionMotionFix.apply(program) ? 2 : 0));
+		h = fingerprintMix(h, System.identityHashCode(mabiMMLOptimizeFunc));
+		h = fingerprintMix(h, MMLStringOptimizer.getOptimizeLevel());
+		h = fingerprintMix(h, MMLBuilder.getMMLVZeroTempo() ? 1 : 0);
+		for (MMLTempoEvent tempo : globalTempoList) {
+			h = fingerprintMix(h, ((long)tempo.getTickOffset() << 32) | (tempo.getTempo() & 0xffffffffL));
+		}
+		for (MMLEventList eventList : mmlParts) {
+			h = fingerprintMix(h, -1L);
+			for (MMLNoteEvent note : eventList.getMMLNoteEventList()) {
+				h = fingerprintMix(h, ((long)note.getTickOffset() << 32) | (note.getTick() & 0xffffffffL));
+				var base = note.getTuningBase();
+				h = fingerprintMix(h, ((long)note.getNote() << 32) | (note.getVelocity() << 8) | ((base != null) ? base.ordinal() + 1 : 0));
+			}
+		}
+		return h;
+	}
+
 	private String[] getMMLStrings(boolean tailFix, boolean mabiTempo) throws MMLExceptionList {
 		int count = mmlParts.size();
 		String[] mml = new String[count];
@@ -416,13 +576,11 @@ public final class MMLTrack implements Serializable, Cloneable {
 		if ( mabiTempo && mmlParts.get(0).getMMLNoteEventList().isEmpty() && mml[1].equals("") && mml[2].equals("") ) {
 			mml[0] = "";
 		}
-		for (int i = 0; i < count; i++) {
-			if (mabiTempo) {
-				mml[i] = mabiMMLOptimizeFunc.apply(new MMLStringOptimizer(mml[i]).setDisableNopt(disableNopt));
-			} else {
-				// 内部データ向けは旧アルゴリズムを使用する.
-				mml[i] = new MMLStringOptimizer(mml[i]).toString();
-			}
+		if (mabiTempo) {
+			optimizeParts(mml, t -> mabiMMLOptimizeFunc.apply(new MMLStringOptimizer(t).setDisableNopt(disableNopt)));
+		} else {
+			// 内部データ向けは旧アルゴリズムを使用する.
+			optimizeParts(mml, t -> new MMLStringOptimizer(t).toString());
 		}
 		if ((mmlParts.get(3).getTickLength() == 0)) {
 			mml[3] = "";
@@ -499,9 +657,7 @@ public final class MMLTrack implements Serializable, Cloneable {
 	private String[] getMMLStringsMusicQ() throws MMLExceptionList {
 		boolean allowed = tempoAllowChordPartFunction.apply(program);
 		String[] mml = getGenericMMLStrings(allowed);
-		for (int i = 0; i < mml.length; i++) {
-			mml[i] = mabiMMLOptimizeFunc.apply(new MMLStringOptimizer(mml[i]).setDisableNopt(disableNopt));
-		}
+		optimizeParts(mml, t -> mabiMMLOptimizeFunc.apply(new MMLStringOptimizer(t).setDisableNopt(disableNopt)));
 		if ((mmlParts.get(3).getTickLength() == 0)) {
 			mml[3] = "";
 		}
@@ -509,6 +665,15 @@ public final class MMLTrack implements Serializable, Cloneable {
 		return mml;
 	}
 
+	/**
+	 * 各パートのMML最適化を並列に行う. 結果はパートのindex順に格納する.
+	 * @param mml    最適化するMML. 最適化結果で置き換える.
+	 * @param func   最適化処理
+	 */
+	private static void optimizeParts(String[] mml, UnaryOperator<String> func) {
+		IntStream.range(0, mml.length).parallel().forEach(i -> mml[i] = func.apply(mml[i]));
+	}
+
 	private static Function<MMLStringOptimizer, String> mabiMMLOptimizeFunc = t -> t.preciseOptimize();
 	public static void setMabiMMLOptimizeFunc(Function<MMLStringOptimizer, String> f) {
 		mabiMMLOptimizeFunc = (f != null) ? (f) : (t -> t.preciseOptimize());
@@ -541,7 +706,7 @@ public final class MMLTrack implements Serializable, Cloneable {
 	 */
 	public double getPlayTime() {
 		int totalTick = (int)getMaxTickLength();
-		double playTime = MMLTempoConverter.getTimeOnTickOffset(globalTempoList, totalTick);
+		double playTime = getTempoMap().getTimeOnTickOffset(totalTick);
 		return playTime/1000.0;
 	}	
 
@@ -554,18 +719,14 @@ public final class MMLTrack implements Serializable, Cloneable {
 		double[] partTime = new double[mmlParts.size()];
 
 		int melodyTick = (int)mmlParts.get(0).getTickLength();
-		partTime[0] = MMLTempoConverter.getTimeOnTickOffset(globalTempoList, melodyTick);
+		partTime[0] = getTempoMap().getTimeOnTickOffset(melodyTick);
 
-		ArrayList<MMLTempoEvent> globalTailTempo = new ArrayList<>();
-		MMLTempoEvent lastTempoEvent = new MMLTempoEvent(120, 0);
-		if (globalTempoList.size() > 0) {
-			lastTempoEvent.setTempo(globalTempoList.get(globalTempoList.size()-1).getTempo());
-		}
-		globalTailTempo.add(new MMLTempoEvent(lastTempoEvent.getTempo(), 0));
+		int lastTempo = globalTempoList.isEmpty() ? MMLTempoEvent.INITIAL_TEMPO : globalTempoList.get(globalTempoList.size()-1).getTempo();
+		var tailTempoMap = TempoMap.of(List.of(new MMLTempoEvent(lastTempo, 0)));
 
 		for (int i = 1; i < partTime.length; i++) {
 			int tick = (int)mmlParts.get(i).getTickLength();
-			partTime[i] = MMLTempoConverter.getTimeOnTickOffset(globalTailTempo, tick);
+			partTime[i] = tailTempoMap.getTimeOnTickOffset(tick);
 		}
 
 		double maxTime = 0;
@@ -759,6 +920,9 @@ public final class MMLTrack implements Serializable, Cloneable {
 		o.setImportedData(importedData);
 		o.setOptTempoOnlyMelody(optTempoOnlyMelody);
 		if (generated) {
+			o.generatedFingerprint = generatedFingerprint;
+			o.generatedOriginalText = generatedOriginalText;
+			o.generatedMabiText = generatedMabiText;
 			try {
 				o.generate();
 			} catch (MMLExceptionList | MMLVerifyException e) {
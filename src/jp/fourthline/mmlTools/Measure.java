@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2023 たんらる
+ * Copyright (C) 2022-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -51,22 +51,12 @@ public final class Measure {
 	}
 
 	public Measure(MMLScore score, int tick) {
-		var timeSignatureList = score.getTimeSignatureList();
-		int numTime = score.getTimeCountOnly();
-		int beatTick = score.getBeatTick();
-		int m = 0;
-		int baseTick = 0;
-
-		for (TimeSignature t : timeSignatureList) {
-			if (t.getTickOffset() <= tick) {
-				baseTick = t.getTickOffset();
-				m = t.getMeasureOffset();
-				beatTick = t.getBaseTick();
-				numTime = t.getNumTime();
-			} else {
-				break;
-			}
-		}
+		var measureIndex = score.getMeasureIndex();
+		int index = measureIndex.indexOnTick(tick);
+		int numTime = measureIndex.numTime(index);
+		int beatTick = measureIndex.beatTick(index);
+		int m = measureIndex.measureOffset(index);
+		int baseTick = measureIndex.tickOffset(index);
 
 		this.measure = m + ((tick - baseTick) / (beatTick * numTime));
 		int barR = (tick - baseTick) % (beatTick * numTime);
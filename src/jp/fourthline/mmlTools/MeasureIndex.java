@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+/**
+ * 拍子記号リストの索引. tick → 拍子記号, 小節 → 拍子記号 を二分探索で求める.
+ * <p>
+ * 作成時の拍子記号の内容を保持する. スコアの拍子や拍子記号が変更された場合は, {@link MMLScore} が破棄して作り直す.
+ * 拍子記号リストが tickOffset 順に並んでいない場合は, 先頭から順に探索する.
+ * </p>
+ */
+final class MeasureIndex {
+	private final int numTime;
+	private final int beatTick;
+	private final int[] tickOffset;
+	private final int[] measureOffset;
+	private final int[] tsNumTime;
+	private final int[] tsBaseTick;
+	private final boolean sortedByTick;
+	private final boolean sortedByMeasure;
+
+	MeasureIndex(MMLScore score) {
+		numTime = score.getTimeCountOnly();
+		beatTick = score.getBeatTick();
+		var list = score.getTimeSignatureList();
+		int size = list.size();
+		tickOffset = new int[size];
+		measureOffset = new int[size];
+		tsNumTime = new int[size];
+		tsBaseTick = new int[size];
+		boolean sortedTick = true;
+		boolean sortedMeasure = true;
+		for (int i = 0; i < size; i++) {
+			var ts = list.get(i);
+			tickOffset[i] = ts.getTickOffset();
+			measureOffset[i] = ts.getMeasureOffset();
+			tsNumTime[i] = ts.getNumTime();
+			tsBaseTick[i] = ts.getBaseTick();
+			if (i > 0) {
+				sortedTick &= (tickOffset[i-1] <= tickOffset[i]);
+				sortedMeasure &= (measureOffset[i-1] <= measureOffset[i]);
+			}
+		}
+		sortedByTick = sortedTick;
+		sortedByMeasure = sortedMeasure;
+	}
+
+	/**
+	 * @return tick を含む拍子記号のindex, 拍子記号がない場合は -1
+	 */
+	int indexOnTick(int tick) {
+		return sortedByTick ? lastIndexOnOrBefore(tickOffset, tick) : firstScan(tickOffset, tick);
+	}
+
+	/**
+	 * @return measure を含む拍子記号のindex, 拍子記号がない場合は -1
+	 */
+	int indexOnMeasure(int measure) {
+		return sortedByMeasure ? lastIndexOnOrBefore(measureOffset, measure) : firstScan(measureOffset, measure);
+	}
+
+	private static int lastIndexOnOrBefore(int[] array, int value) {
+		int low = 0;
+		int high = array.length - 1;
+		int index = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (array[mid] <= value) {
+				index = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return index;
+	}
+
+	/** 先頭から value 以下の間を進む (並んでいない場合用) */
+	private static int firstScan(int[] array, int value) {
+		int index = -1;
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] <= value) {
+				index = i;
+			} else {
+				break;
+			}
+		}
+		return index;
+	}
+
+	int tickOffset(int index) {
+		return (index < 0) ? 0 : tickOffset[index];
+	}
+
+	int measureOffset(int index) {
+		return (index < 0) ? 0 : measureOffset[index];
+	}
+
+	int numTime(int index) {
+		return (index < 0) ? numTime : tsNumTime[index];
+	}
+
+	int beatTick(int index) {
+		return (index < 0) ? beatTick : tsBaseTick[index];
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import java.util.ArrayList;
+
+/**
+ * MMLScoreのテンポリスト. tick と時間の変換表 ({@link TempoMap}) を保持する.
+ * <p>
+ * リストの変更 (modCount), またはテンポイベントの変更 ({@link MMLTempoEvent#getModification()}) を検出した場合は,
+ * 次の参照時に変換表を作り直す.
+ * </p>
+ */
+final class TempoList extends ArrayList<MMLTempoEvent> {
+	private static final long serialVersionUID = 1L;
+
+	private record Cache(TempoMap tempoMap, int listModification, int eventModification) {}
+
+	private transient volatile Cache cache = null;
+
+	@Override
+	public MMLTempoEvent set(int index, MMLTempoEvent element) {
+		// 要素の置き換えは modCount が変わらないので, ここで更新する.
+		modCount++;
+		return super.set(index, element);
+	}
+
+	/**
+	 * @return 現在のテンポリストの変換表
+	 */
+	TempoMap getTempoMap() {
+		int eventModification = MMLTempoEvent.getModification();
+		int listModification = modCount;
+		var c = cache;
+		if ((c == null) || (c.listModification() != listModification) || (c.eventModification() != eventModification)) {
+			c = new Cache(TempoMap.of(this), listModification, eventModification);
+			cache = c;
+		}
+		return c.tempoMap();
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jp.fourthline.mmlTools.core.MMLTickTable;
+
+/**
+ * テンポリストから作成する tick と時間の変換表. 作成後は変更しない.
+ * <p>
+ * テンポが変化する位置ごとの累積時間を保持し, tick→時間, 時間→tick を二分探索で求める.
+ * 計算順序は MMLTempoConverter の逐次計算と同じにしているので, 結果は一致する.
+ * </p>
+ */
+public final class TempoMap {
+	/** テンポが変化する位置 */
+	private final int[] changeTick;
+	private final int[] changeTempo;
+	/** 変化位置までの累積時間 (TPQNで割る前の値) */
+	private final double[] changeTime;
+
+	/** テンポイベントごとの位置, テンポ, 時間 (ms) */
+	private final int[] eventTick;
+	private final int[] eventTempo;
+	private final double[] eventTime;
+
+	private TempoMap(List<MMLTempoEvent> tempoList) {
+		int size = tempoList.size();
+		int[] cTick = new int[size];
+		int[] cTempo = new int[size];
+		double[] cTime = new double[size];
+		int count = 0;
+
+		double totalTime = 0;
+		int tempo = MMLTempoEvent.INITIAL_TEMPO;
+		int currentTick = 0;
+		for (MMLTempoEvent tempoEvent : tempoList) {
+			int currentTempoTick = tempoEvent.getTickOffset();
+			int currentTempo = tempoEvent.getTempo();
+			if (tempo != currentTempo) {
+				totalTime += (currentTempoTick - currentTick) * 60000.0 / tempo;
+				currentTick = currentTempoTick;
+				cTick[count] = currentTick;
+				cTempo[count] = currentTempo;
+				cTime[count] = totalTime;
+				count++;
+			}
+			tempo = currentTempo;
+		}
+		changeTick = Arrays.copyOf(cTick, count);
+		changeTempo = Arrays.copyOf(cTempo, count);
+		changeTime = Arrays.copyOf(cTime, count);
+
+		eventTick = new int[size];
+		eventTempo = new int[size];
+		eventTime = new double[size];
+		for (int i = 0; i < size; i++) {
+			var tempoEvent = tempoList.get(i);
+			eventTick[i] = tempoEvent.getTickOffset();
+			eventTempo[i] = tempoEvent.getTempo();
+			eventTime[i] = getTimeOnTickOffset(eventTick[i]);
+		}
+	}
+
+	/**
+	 * @param tempoList tickOffset順のテンポリスト
+	 * @return 変換表
+	 */
+	public static TempoMap of(List<MMLTempoEvent> tempoList) {
+		return new TempoMap(tempoList);
+	}
+
+	/**
+	 * テンポリストの変換表を取得する. MMLScoreのテンポリストは保持している変換表を使い, それ以外は作成する.
+	 * @param tempoList tickOffset順のテンポリスト
+	 * @return 変換表
+	 */
+	public static TempoMap get(List<MMLTempoEvent> tempoList) {
+		return (tempoList instanceof TempoList list) ? list.getTempoMap() : of(tempoList);
+	}
+
+	/**
+	 * 指定したtickオフセット位置の先頭からの時間を返します.
+	 * @param tickOffset
+	 * @return 先頭からの時間（ms）
+	 */
+	public double getTimeOnTickOffset(int tickOffset) {
+		return timeOnTickOffset(changeTick, changeTempo, changeTime, changeTick.length, tickOffset);
+	}
+
+	private static double timeOnTickOffset(int[] changeTick, int[] changeTempo, double[] changeTime, int count, int tickOffset) {
+		// tickOffset 以前の最後の変化位置
+		int low = 0;
+		int high = count - 1;
+		int index = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (changeTick[mid] <= tickOffset) {
+				index = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		double totalTime = 0L;
+		int tempo = MMLTempoEvent.INITIAL_TEMPO;
+		int currentTick = 0;
+		if (index >= 0) {
+			totalTime = changeTime[index];
+			tempo = changeTempo[index];
+			currentTick = changeTick[index];
+		}
+		totalTime += (tickOffset - currentTick) * 60000.0 / tempo;
+		return totalTime / MMLTickTable.TPQN;
+	}
+
+	/**
+	 * 指定した時間からtickオフセットを返します.
+	 * @param time 先頭からの時間（ms）
+	 * @return tickオフセット
+	 */
+	public double getTickOffsetOnTime(double time) {
+		return tickOffsetOnTime(eventTick, eventTempo, eventTime, eventTime.length, time);
+	}
+
+	private static double tickOffsetOnTime(int[] eventTick, int[] eventTempo, double[] eventTime, int count, double time) {
+		// time より前にある最後のテンポイベント
+		int low = 0;
+		int high = count - 1;
+		int index = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (eventTime[mid] < time) {
+				index = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		int tempo = MMLTempoEvent.INITIAL_TEMPO;
+		double pointTime = 0;
+		double tick = 0;
+		if (index >= 0) {
+			pointTime = eventTime[index];
+			tempo = eventTempo[index];
+			tick = eventTick[index];
+		}
+		tick += (time - pointTime) * MMLTickTable.TPQN * tempo / 60 / 1000;
+		return tick;
+	}
+
+	/**
+	 * テンポを1つずつ追加しながら, 追加済みのテンポで 時間→tick の変換を行う.
+	 * tickOffset順に追加した場合, 追加済みのテンポリストから作成した {@link TempoMap} と同じ結果になる.
+	 */
+	static final class Builder {
+		private int[] changeTick;
+		private int[] changeTempo;
+		private double[] changeTime;
+		private int changeCount = 0;
+
+		private int[] eventTick;
+		private int[] eventTempo;
+		private double[] eventTime;
+		private int eventCount = 0;
+
+		private double totalTime = 0;
+		private int tempo = MMLTempoEvent.INITIAL_TEMPO;
+		private int currentTick = 0;
+
+		Builder(int capacity) {
+			capacity = Math.max(capacity, 1);
+			changeTick = new int[capacity];
+			changeTempo = new int[capacity];
+			changeTime = new double[capacity];
+			eventTick = new int[capacity];
+			eventTempo = new int[capacity];
+			eventTime = new double[capacity];
+		}
+
+		void add(MMLTempoEvent tempoEvent) {
+			if (eventCount == eventTick.length) {
+				int capacity = eventCount * 2;
+				changeTick = Arrays.copyOf(changeTick, capacity);
+				changeTempo = Arrays.copyOf(changeTempo, capacity);
+				changeTime = Arrays.copyOf(changeTime, capacity);
+				eventTick = Arrays.copyOf(eventTick, capacity);
+				eventTempo = Arrays.copyOf(eventTempo, capacity);
+				eventTime = Arrays.copyOf(eventTime, capacity);
+			}
+			int currentTempoTick = tempoEvent.getTickOffset();
+			int currentTempo = tempoEvent.getTempo();
+			if (tempo != currentTempo) {
+				totalTime += (currentTempoTick - currentTick) * 60000.0 / tempo;
+				currentTick = currentTempoTick;
+				changeTick[changeCount] = currentTick;
+				changeTempo[changeCount] = currentTempo;
+				changeTime[changeCount] = totalTime;
+				changeCount++;
+			}
+			tempo = currentTempo;
+
+			eventTick[eventCount] = currentTempoTick;
+			eventTempo[eventCount] = currentTempo;
+			eventTime[eventCount] = timeOnTickOffset(changeTick, changeTempo, changeTime, changeCount, currentTempoTick);
+			eventCount++;
+		}
+
+		/**
+		 * @see TempoMap#getTickOffsetOnTime(double)
+		 */
+		double getTickOffsetOnTime(double time) {
+			return tickOffsetOnTime(eventTick, eventTempo, eventTime, eventCount, time);
+		}
+	}
+}
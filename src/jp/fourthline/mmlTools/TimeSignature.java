@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2023 たんらる
+ * Copyright (C) 2022-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -68,6 +68,7 @@ public final class TimeSignature extends MMLEvent {
 			int tick = measureToCalcTick(score, ts.getMeasureOffset());
 			ts.setViewTickOffset(tick);
 		}
+		score.clearMeasureIndex();
 	}
 
 	/**
@@ -89,34 +90,30 @@ public final class TimeSignature extends MMLEvent {
 				beatTick = timeSignature.getBaseTick();
 				timeSignature = timeSignatureIterator.hasNext() ? timeSignatureIterator.next() : null;
 			}
+			// 次の拍子記号までは同じ拍子なので, まとめて進める.
+			boolean pending = (timeSignature != null) && (m >= timeSignature.getMeasureOffset());
 			int measureTick = numTime * beatTick;
 			if (measureTick <= tick) {
-				m++;
-				tick -= measureTick;
+				int count = tick / measureTick;
+				if (timeSignature != null) {
+					count = pending ? 1 : Math.min(count, timeSignature.getMeasureOffset() - m);
+				}
+				m += count;
+				tick -= count * measureTick;
 			} else {
-				tick -= beatTick;
+				tick = pending ? tick - beatTick : tick % beatTick;
 			}
 		}
 		return m;
 	}
 
 	public static int measureToTick(MMLScore score, int measure) {
-		var timeSignatureList = score.getTimeSignatureList();
-		int numTime = score.getTimeCountOnly();
-		int beatTick = score.getBeatTick();
-		int m = 0;
-		int baseTick = 0;
-
-		for (TimeSignature t : timeSignatureList) {
-			if (t.getMeasureOffset() <= measure) {
-				baseTick = t.getTickOffset();
-				m = t.getMeasureOffset();
-				beatTick = t.getBaseTick();
-				numTime = t.getNumTime();
-			} else {
-				break;
-			}
-		}
+		var measureIndex = score.getMeasureIndex();
+		int index = measureIndex.indexOnMeasure(measure);
+		int numTime = measureIndex.numTime(index);
+		int beatTick = measureIndex.beatTick(index);
+		int m = measureIndex.measureOffset(index);
+		int baseTick = measureIndex.tickOffset(index);
 
 		return baseTick + (measure - m) * (numTime * beatTick);
 	}
@@ -133,8 +130,13 @@ public final class TimeSignature extends MMLEvent {
 				measureTick = timeSignature.getNumTime() * timeSignature.getBaseTick();
 				timeSignature = timeSignatureIterator.hasNext() ? timeSignatureIterator.next() : null;
 			}
-			m++;
-			md += measureTick;
+			// 次の拍子記号までは同じ拍子なので, まとめて進める.
+			int count = measure - m;
+			if (timeSignature != null) {
+				count = Math.max(1, Math.min(count, timeSignature.getMeasureOffset() - m));
+			}
+			m += count;
+			md += count * measureTick;
 		}
 		return md;
 	}
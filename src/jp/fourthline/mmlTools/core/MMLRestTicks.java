@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2024 たんらる
+ * Copyright (C) 2024-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.core;
@@ -62,8 +62,8 @@ public class MMLRestTicks extends MMLTicks {
 		int divTick = calcDivTick(tempo);
 
 		// "1."
-		int mTick = getTick("1.");
-		int tick1 = getTick("1");
+		int mTick = lengthTick(1, true);
+		int tick1 = lengthTick(1, false);
 		while (remTick > (tick1*2)) {
 			sb.append( mmlNotePart("1.") );
 
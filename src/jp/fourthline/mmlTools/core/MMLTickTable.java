@@ -5,9 +5,11 @@
 package jp.fourthline.mmlTools.core;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.IntFunction;
+import java.util.zip.CRC32;
 
 public final class MMLTickTable {
 
@@ -19,6 +21,13 @@ public final class MMLTickTable {
 	 */
 	private final Map<String, Integer> tickTable;
 
+	/**
+	 * For MML length -> tick. index = length * 2 + (dot ? 1 : 0)
+	 */
+	private final int[] lengthTickTable;
+
+	private final int minimumTick;
+
 	/**
 	 * For tick -> MML text
 	 */
@@ -37,22 +46,59 @@ public final class MMLTickTable {
 		tableInvSwitch = sw;
 	}
 
+	/**
+	 * ビルド時に生成するバイナリ形式の逆変換テーブル. 存在しない, または内容が一致しない場合は起動時に生成する.
+	 */
+	static final String BINARY_RESOURCE = "/resources/tickInvTable.bin";
+	private static final int BINARY_MAGIC = 0x4D545449; // "MTTI"
+	private static final int BINARY_VERSION = 1;
+
+	private static final String[] MB_KEYS = { "1", "1.", "2", "2.", "4", "4.", "8", "8.", "16", "16.", "32", "32.", "64", "64.", "6", "12", "24", "48" };
+
 	public static synchronized MMLTickTable getInstance() {
 		if (obj == null) {
 			InputStream preTable = null;
+			byte[] binary = null;
 			String preLoadFile = System.getProperty("mabiicco.ticktable");
 			if (preLoadFile != null) {
 				preTable = MMLTickTable.class.getResourceAsStream(preLoadFile);
+			} else {
+				binary = readBinaryResource();
 			}
-			obj = new MMLTickTable(preTable);
+			obj = new MMLTickTable(preTable, binary);
 		}
 		return obj;
 	}
 
+	private static byte[] readBinaryResource() {
+		try (InputStream stream = MMLTickTable.class.getResourceAsStream(BINARY_RESOURCE)) {
+			return (stream != null) ? stream.readAllBytes() : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	MMLTickTable(InputStream inputStream) {
+		this(inputStream, null);
+	}
+
+	/**
+	 * @param inputStream テキスト形式の逆変換テーブル (null可)
+	 * @param binary      バイナリ形式の逆変換テーブル (null可). 不正な場合は生成する.
+	 */
+	MMLTickTable(InputStream inputStream, byte[] binary) {
 		tickTable = generateTickTable(TPQN, true);
-		tickInvTable = (inputStream == null) ? generateInvTable() : readFromInputStreamInvTable(inputStream);
-		tickInvTableForMb = generateInvTable(new String[] { "1", "1.", "2", "2.", "4", "4.", "8", "8.", "16", "16.", "32", "32.", "64", "64.", "6", "12", "24", "48" });
+		lengthTickTable = generateLengthTickTable(tickTable);
+		minimumTick = Arrays.stream(lengthTickTable).filter(t -> t > 0).min().getAsInt();
+		List<IntMap<MMLPatern>> binaryTables = (binary != null) ? readBinaryInvTable(binary) : null;
+		if (inputStream != null) {
+			tickInvTable = readFromInputStreamInvTable(inputStream);
+		} else if (binaryTables != null) {
+			tickInvTable = binaryTables.get(0);
+		} else {
+			tickInvTable = generateInvTable();
+		}
+		tickInvTableForMb = (binaryTables != null) ? binaryTables.get(1) : generateInvTable(MB_KEYS);
 	}
 
 	IntMap<MMLPatern> getInvTable() {
@@ -69,6 +115,39 @@ public final class MMLTickTable {
 		return tickTable;
 	}
 
+	/**
+	 * 音長と付点の有無から tickを取得する. 文字列 "8", "8." での {@link #getTable()} の参照と同じ値を返す.
+	 * @param length 音長 (1～64)
+	 * @param dot    付点
+	 * @return 範囲外の場合は -1
+	 */
+	public int getTick(int length, boolean dot) {
+		int index = (length << 1) + (dot ? 1 : 0);
+		return ((length > 0) && (index < lengthTickTable.length)) ? lengthTickTable[index] : -1;
+	}
+
+	/**
+	 * @return テーブル中で最小のtick
+	 */
+	public int getMinimumTick() {
+		return minimumTick;
+	}
+
+	private static int[] generateLengthTickTable(Map<String, Integer> tickTable) {
+		int max = 0;
+		for (String key : tickTable.keySet()) {
+			max = Math.max(max, Integer.parseInt(key.endsWith(".") ? key.substring(0, key.length() - 1) : key));
+		}
+		int[] table = new int[(max + 1) * 2];
+		Arrays.fill(table, -1);
+		tickTable.forEach((key, tick) -> {
+			boolean dot = key.endsWith(".");
+			int length = Integer.parseInt(dot ? key.substring(0, key.length() - 1) : key);
+			table[(length << 1) + (dot ? 1 : 0)] = tick;
+		});
+		return table;
+	}
+
 	private static void add(Map<String, Integer> tickTable, int tpqn, int l, boolean dot) {
 		int tick = tpqn * 4 / l;
 		if (dot) {
@@ -215,6 +294,143 @@ public final class MMLTickTable {
 		return new IntMap<>(table);
 	}
 
+	/**
+	 * 逆変換テーブルの生成条件. 生成に使う音長とtick, 組み合わせ数が変わった場合はバイナリを使用しない.
+	 */
+	private long binarySignature() {
+		CRC32 crc = new CRC32();
+		StringBuilder sb = new StringBuilder();
+		sb.append(TPQN).append(',').append(COMBN);
+		tickTable.forEach((key, tick) -> sb.append(',').append(key).append('=').append(tick));
+		sb.append(';').append(String.join(",", MB_KEYS));
+		crc.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+		return crc.getValue();
+	}
+
+	/** 音長の文字列 ("8", "8.") を1byteに変換する. */
+	private static int encodeKey(String key) {
+		boolean dot = key.endsWith(".");
+		int length = Integer.parseInt(dot ? key.substring(0, key.length() - 1) : key);
+		return (length << 1) | (dot ? 1 : 0);
+	}
+
+	private static String decodeKey(int code) {
+		return (code >> 1) + (((code & 1) != 0) ? "." : "");
+	}
+
+	/**
+	 * 逆変換テーブル (FULL, MB) をバイナリ形式で出力する.
+	 * @param outputStream 出力先
+	 * @throws IOException
+	 */
+	void writeBinaryInvTable(OutputStream outputStream) throws IOException {
+		var bstream = new ByteArrayOutputStream(64 * 1024);
+		var out = new DataOutputStream(bstream);
+		out.writeInt(BINARY_MAGIC);
+		out.writeInt(BINARY_VERSION);
+		out.writeLong(binarySignature());
+		for (var table : List.of(tickInvTable, tickInvTableForMb)) {
+			out.writeInt(table.validCount());
+			for (int i = 0; i < table.max(); i++) {
+				var pattern = table.get(i);
+				if (pattern != null) {
+					out.writeInt(i);
+					writeKeyList(out, pattern.primary);
+					out.writeShort(pattern.alt.size());
+					for (var alt : pattern.alt) {
+						writeKeyList(out, alt);
+					}
+				}
+			}
+		}
+		out.flush();
+
+		CRC32 crc = new CRC32();
+		crc.update(bstream.toByteArray());
+		out.writeLong(crc.getValue());
+		out.flush();
+		bstream.writeTo(outputStream);
+	}
+
+	private static void writeKeyList(DataOutputStream out, List<String> list) throws IOException {
+		out.writeByte(list.size());
+		for (String key : list) {
+			out.writeByte(encodeKey(key));
+		}
+	}
+
+	private static List<String> readKeyList(DataInputStream in, String[] keyCache) throws IOException {
+		int size = in.readUnsignedByte();
+		var list = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			int code = in.readUnsignedByte();
+			if (keyCache[code] == null) {
+				keyCache[code] = decodeKey(code);
+			}
+			list.add(keyCache[code]);
+		}
+		return list;
+	}
+
+	/**
+	 * バイナリ形式の逆変換テーブルを読み込む.
+	 * @param data バイナリ
+	 * @return FULL, MB のテーブル. チェックサムや生成条件が一致しない場合は null.
+	 */
+	private List<IntMap<MMLPatern>> readBinaryInvTable(byte[] data) {
+		if (!checkBinaryInvTable(data)) {
+			System.err.println("MMLTickTable: invalid binary table, regenerate.");
+			return null;
+		}
+		try {
+			var in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - Long.BYTES));
+			in.readInt();
+			in.readInt();
+			if (in.readLong() != binarySignature()) {
+				System.err.println("MMLTickTable: binary table is outdated, regenerate.");
+				return null;
+			}
+			var keyCache = new String[256];
+			var tables = new ArrayList<IntMap<MMLPatern>>(2);
+			for (int t = 0; t < 2; t++) {
+				int count = in.readInt();
+				var table = new HashMap<Integer, MMLPatern>(count * 2);
+				for (int i = 0; i < count; i++) {
+					int tick = in.readInt();
+					var pattern = new MMLPatern(readKeyList(in, keyCache));
+					int altCount = in.readUnsignedShort();
+					for (int j = 0; j < altCount; j++) {
+						pattern.alt.add(readKeyList(in, keyCache));
+					}
+					table.put(tick, pattern);
+				}
+				tables.add(new IntMap<>(table));
+			}
+			return tables;
+		} catch (IOException | RuntimeException e) {
+			System.err.println("MMLTickTable: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * バイナリ形式のヘッダとチェックサムを確認する.
+	 * @param data バイナリ
+	 * @return 正しい場合は true
+	 */
+	static boolean checkBinaryInvTable(byte[] data) {
+		if ((data == null) || (data.length < 4 + 4 + 8 + 8)) {
+			return false;
+		}
+		var buffer = ByteBuffer.wrap(data);
+		if ((buffer.getInt(0) != BINARY_MAGIC) || (buffer.getInt(4) != BINARY_VERSION)) {
+			return false;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length - Long.BYTES);
+		return crc.getValue() == buffer.getLong(data.length - Long.BYTES);
+	}
+
 	public final static class IntMap<T> {
 		private final T[] array;
 
@@ -255,8 +471,18 @@ public final class MMLTickTable {
 		writeToOutputStreamInvTable(System.out, true);
 	}
 
-	public static void main(String[] args) {
+	/**
+	 * 引数なし: 逆変換テーブルをテキストで出力する.
+	 * -binary [file]: ビルド時に同梱するバイナリ形式のテーブルを出力する.
+	 */
+	public static void main(String[] args) throws IOException {
 		MMLTickTable tickTable = new MMLTickTable(null);
-		tickTable.printTickList();
+		if ((args.length == 2) && args[0].equals("-binary")) {
+			try (var outputStream = new FileOutputStream(args[1])) {
+				tickTable.writeBinaryInvTable(outputStream);
+			}
+		} else {
+			tickTable.printTickList();
+		}
 	}
 }
@@ -17,6 +17,11 @@ public class MMLTicks {
 	private static final MMLTickTable tickTable = MMLTickTable.getInstance();
 
 	public static int getTick(String gt) throws MMLException {
+		int tick = parseTick(gt, 0, gt.length());
+		if (tick >= 0) {
+			return tick;
+		}
+
 		String str = gt;
 		while (!tickTable.getTable().containsKey(str)) {
 			int len = str.length();
@@ -34,25 +39,58 @@ public class MMLTicks {
 		return tickTable.getTable().get(str);
 	}
 
+	/** 音長テーブルに定義されている最大の音長 */
+	public static final int MAX_LENGTH = 64;
+
+	/**
+	 * 数値の音長から tickを取得する. 文字列の音長 "length" または "length." に対する {@link #getTick(String)} と同じ値を返す.
+	 * @param length 音長 (1～64)
+	 * @param dot    付点
+	 * @return 範囲外の場合は -1
+	 */
+	public static int lengthTick(int length, boolean dot) {
+		return tickTable.getTick(length, dot);
+	}
+
+	/**
+	 * 文字列の範囲を音長 ("8", "8." など) として tickに変換する. 文字列の生成とテーブルの文字列検索は行わない.
+	 * @param s     対象の文字列
+	 * @param start 開始位置
+	 * @param end   終了位置
+	 * @return 数字と付点のみからなる通常の形式でない場合, または範囲外の場合は -1. この場合は {@link #getTick(String)} で変換する.
+	 */
+	public static int parseTick(CharSequence s, int start, int end) {
+		int length = 0;
+		int i = start;
+		for (; i < end; i++) {
+			char ch = s.charAt(i);
+			if ((ch < '0') || (ch > '9') || ((i == start) && (ch == '0'))) {
+				break;
+			}
+			length = length * 10 + (ch - '0');
+			if (length > MAX_LENGTH) {
+				return -1;
+			}
+		}
+		if (i == start) {
+			return -1;
+		}
+		boolean dot = i < end;
+		for (; i < end; i++) {
+			if (s.charAt(i) != '.') {
+				return -1;
+			}
+		}
+		return lengthTick(length, dot);
+	}
+
 	public static Optional<List<List<String>>> getAlt(int tick) {
 		var t = tickTable.getInvTable().get(tick);
 		return t == null ? Optional.empty() : Optional.of(t.alt);
 	}
 
-	private static Integer minimum = null;
 	public static int minimumTick() {
-		if (minimum != null) {
-			return minimum;
-		}
-
-		Integer v = null;
-		for (Integer i : tickTable.getTable().values()) {
-			if ( (v == null) || (i < v) ) {
-				v = i;
-			}
-		}
-		minimum = v;
-		return minimum;
+		return tickTable.getMinimumTick();
 	}
 
 
@@ -102,9 +140,10 @@ public class MMLTicks {
 		// 1~64の分割
 		if (remTick > 0) {
 			for (int base = 1; base <= 64; base *= 2) {
-				int baseTick = getTick(""+base);
-				if (tickTable.getInvTable().containsKey(remTick)) {
-					sb.append( mmlNotePart(tickTable.getInvTable().get(remTick).primary) );
+				int baseTick = lengthTick(base, false);
+				var pattern = tickTable.getInvTable().get(remTick);
+				if (pattern != null) {
+					sb.append( mmlNotePart(pattern.primary) );
 					remTick = 0;
 					break;
 				}
@@ -139,8 +178,8 @@ public class MMLTicks {
 		StringBuilder sb = new StringBuilder();
 
 		// "1."
-		int mTick = getTick("1.");
-		int tick1 = getTick("1");
+		int mTick = lengthTick(1, true);
+		int tick1 = lengthTick(1, false);
 		while (remTick > (tick1*2)) {
 			sb.append( mmlNotePart("1.") );
 			remTick -= mTick;
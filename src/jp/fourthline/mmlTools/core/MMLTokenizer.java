@@ -1,13 +1,12 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.core;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -17,6 +16,30 @@ import java.util.Map;
 public final class MMLTokenizer implements Iterator<String> {
 	private static final String noteString = "abcdefgABCDEFGnNrR";
 	private static final String tokenString = noteString + "tToOlLvV<>&,";
+
+	/** ASCII文字の種別テーブル */
+	private static final byte[] charClass = new byte[128];
+	private static final byte CLASS_TOKEN = 1;
+	private static final byte CLASS_NOTE = 2;
+
+	static {
+		for (char ch : tokenString.toCharArray()) {
+			charClass[ch] |= CLASS_TOKEN;
+		}
+		for (char ch : noteString.toCharArray()) {
+			charClass[ch] |= CLASS_NOTE;
+		}
+	}
+
+	/**
+	 * トークン文字列のプール.
+	 * 同じ内容のトークンには同じStringインスタンスを返し, トークンごとの文字列生成を避ける.
+	 * 同一スロットへの競合書き込みは上書きになるだけなので, 同期は行わない.
+	 */
+	private static final int POOL_SIZE = 4096;
+	private static final int POOL_MAX_TOKEN_LENGTH = 8;
+	private static final String[] tokenPool = new String[POOL_SIZE];
+
 	private final String mml_src;
 	private final int mml_length;
 	private final char[] mml_charArray;
@@ -36,9 +59,71 @@ public final class MMLTokenizer implements Iterator<String> {
 
 	@Override
 	public String next() {
+		advance();
+		return token();
+	}
+
+	/**
+	 * 文字列を生成せずに次のトークンへ進める.
+	 * トークンの範囲は {@link #getStart()}, {@link #getEnd()} で取得する.
+	 * @return トークンの先頭文字
+	 */
+	public char advance() {
 		startIndex = endIndex;
 		endIndex = searchToken(endIndex+1);
-		return mml_src.substring(startIndex, endIndex);
+		return mml_charArray[startIndex];
+	}
+
+	/**
+	 * 現在のトークンの文字列を取得する. 短いトークンはプールされたインスタンスを返す.
+	 * @return トークン文字列
+	 */
+	public String token() {
+		int length = endIndex - startIndex;
+		if (length > POOL_MAX_TOKEN_LENGTH) {
+			return mml_src.substring(startIndex, endIndex);
+		}
+
+		int h = 0;
+		for (int i = startIndex; i < endIndex; i++) {
+			h = 31 * h + mml_charArray[i];
+		}
+		int slot = (h ^ (h >>> 16)) & (POOL_SIZE - 1);
+		String s = tokenPool[slot];
+		if ((s == null) || !regionEquals(s, startIndex, length)) {
+			s = mml_src.substring(startIndex, endIndex);
+			tokenPool[slot] = s;
+		}
+		return s;
+	}
+
+	/**
+	 * 現在のトークンを文字列を生成せずに追加する.
+	 * @param sb 追加先
+	 */
+	public void appendTo(StringBuilder sb) {
+		sb.append(mml_charArray, startIndex, endIndex - startIndex);
+	}
+
+	private boolean regionEquals(String s, int start, int length) {
+		if (s.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (s.charAt(i) != mml_charArray[start + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 解析対象の文字を取得する.
+	 * @param index
+	 * @return
+	 */
+	public char charAt(int index) {
+		return mml_charArray[index];
 	}
 
 	@Override
@@ -64,11 +149,11 @@ public final class MMLTokenizer implements Iterator<String> {
 	}
 
 	public static boolean isToken(char ch) {
-		return tokenString.indexOf(ch) >= 0;
+		return (ch < charClass.length) && ((charClass[ch] & CLASS_TOKEN) != 0);
 	}
 
 	public static boolean isNote(char ch) {
-		return noteString.indexOf(ch) >= 0;
+		return (ch < charClass.length) && ((charClass[ch] & CLASS_NOTE) != 0);
 	}
 
 	public static String noteName(String token) {
@@ -83,7 +168,7 @@ public final class MMLTokenizer implements Iterator<String> {
 		return noteName;
 	}
 
-	private static final Map<String, String[]> tokenCache = Collections.synchronizedMap(new HashMap<>());
+	private static final Map<String, String[]> tokenCache = new ConcurrentHashMap<>();
 	public static String[] noteNames(String token) {
 		var t = tokenCache.get(token);
 		if (t != null) {
@@ -99,10 +184,20 @@ public final class MMLTokenizer implements Iterator<String> {
 	}
 
 	public static boolean isLenOnly(String str) {
+		int length = str.length();
 		if (str.endsWith(".")) {
-			str = str.substring(0, str.length() - 1);
+			length--;
+		}
+		if (length == 0) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			char ch = str.charAt(i);
+			if ((ch < '0') || (ch > '9')) {
+				return false;
+			}
 		}
-		return str.matches("[0-9]+");
+		return true;
 	}
 
 	public int searchToken(int startIndex) {
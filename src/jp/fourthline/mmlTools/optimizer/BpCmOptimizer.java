@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2015 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.optimizer;
@@ -157,6 +157,17 @@ public final class BpCmOptimizer implements MMLStringOptimizer.Optimizer {
 		}
 	}
 
+	@Override
+	public void nextToken(MMLTokenizer tokenizer) {
+		// パターンの途中でなければ, オクターブ変更以外のトークンは文字列を生成せずに出力する.
+		char firstC = tokenizer.charAt(tokenizer.getStart());
+		if ( (state == BpCmState.NONE) && (firstC != '<') && (firstC != '>') && (!MMLStringOptimizer.getDebug()) ) {
+			tokenizer.appendTo(builder);
+			return;
+		}
+		nextToken(tokenizer.token());
+	}
+
 	@Override
 	public String getMinString() {
 		builder.append(optBuilder);
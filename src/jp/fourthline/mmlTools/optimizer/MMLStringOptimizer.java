@@ -1,13 +1,13 @@
 /*
- * Copyright (C) 2015-2024 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.optimizer;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import jp.fourthline.mmlTools.MMLEventList;
 import jp.fourthline.mmlTools.core.MMLTokenizer;
@@ -34,7 +34,17 @@ public final class MMLStringOptimizer {
 	 * キャッシュ
 	 *   undo, redoでも使えるようにstaticとする.
 	 */
-	private static final Map<String, String> mmlCache = Collections.synchronizedMap(new CacheMap<>(256));
+	private static final OptimizerCache mmlCache = new OptimizerCache();
+
+	/**
+	 * 最適化処理のバージョン. ディスクキャッシュの有効判定に使うので, 最適化結果が変わる修正をしたときは値を更新すること.
+	 */
+	public static final int OPTIMIZER_VERSION = 1;
+
+	/**
+	 * ディスクキャッシュ (Gen2以上の結果のみ)
+	 */
+	private static volatile OptimizerDiskCache diskCache = null;
 
 	private static final List<Map<?, ?>> cacheList = new ArrayList<>();
 
@@ -44,10 +54,34 @@ public final class MMLStringOptimizer {
 
 	public static void clearAllCache() {
 		cacheList.forEach(t -> t.clear());
+		mmlCache.clear();
+		var disk = diskCache;
+		if (disk != null) {
+			disk.clear();
+		}
+	}
+
+	/**
+	 * 最適化結果キャッシュの保持量の上限を設定する.
+	 * @param maxBytes 上限 (byte)
+	 */
+	public static void setCacheMaxBytes(long maxBytes) {
+		mmlCache.setMaxBytes(maxBytes);
+	}
+
+	/**
+	 * 最適化結果のディスクキャッシュを設定する.
+	 * @param cache ディスクキャッシュ, nullの場合は使用しない.
+	 */
+	public static void setDiskCache(OptimizerDiskCache cache) {
+		diskCache = cache;
 	}
 
-	static {
-		addCacheList(mmlCache);
+	/**
+	 * @return 最適化結果キャッシュの統計情報
+	 */
+	public static String getCacheStatistics() {
+		return mmlCache.toString();
 	}
 
 
@@ -63,6 +97,10 @@ public final class MMLStringOptimizer {
 		optLevel = level;
 	}
 
+	public static int getOptimizeLevel() {
+		return optLevel;
+	}
+
 	private final String originalMML;
 
 	private boolean disableNopt = false;
@@ -87,26 +125,48 @@ public final class MMLStringOptimizer {
 	}
 
 	private String cachedOptimize(int gen, boolean disableNopt) {
-		String key = gen + ":" + disableNopt + ":" + originalMML;
+		var key = OptimizerCache.Key.of((gen << 1) | (disableNopt ? 1 : 0), originalMML);
 		String str = mmlCache.get(key);
 		if (str != null) {
 			return str;
 		}
 
+		var disk = (gen >= GEN2) ? diskCache : null;
+		if (disk != null) {
+			// 最適化処理の変更はバージョン, 入力の違いはキーで区別されるので, 読み込んだ結果は検査せずに使う.
+			str = disk.get(key);
+			if (str != null) {
+				mmlCache.put(key, str);
+				return str;
+			}
+		}
+
 		if (gen == GEN2) {
 			String mml1 = optimizeGen2();
-			str = (new MMLEventList(mml1).equals(new MMLEventList(originalMML))) ? mml1 : optimize(disableNopt);
+			str = verify(mml1) ? mml1 : optimize(disableNopt);
 		} else if (gen == GEN3) {
 			String mml1 = optimizeGen3();
-			str = (new MMLEventList(mml1).equals(new MMLEventList(originalMML))) ? mml1 : optimize(disableNopt);
+			str = verify(mml1) ? mml1 : optimize(disableNopt);
 		} else {
 			str = optimize(disableNopt);
 		}
 
 		mmlCache.put(key, str);
+		if (disk != null) {
+			disk.put(key, str);
+		}
 		return str;
 	}
 
+	/**
+	 * 最適化後のMMLを再Parseして, 元のMMLと同じ内容であるかを検査する.
+	 * 2つのMMLの解析は並列に行う.
+	 */
+	private boolean verify(String mml) {
+		var list = Stream.of(mml, originalMML).parallel().map(MMLEventList::new).toList();
+		return list.get(0).equals(list.get(1));
+	}
+
 	/**
 	 * MML最適化 Gen2
 	 */
@@ -157,7 +217,11 @@ public final class MMLStringOptimizer {
 	private String optimize(Optimizer[] optimizerList) {
 		String mml = originalMML;
 		for (Optimizer optimizer : optimizerList) {
-			new MMLTokenizer(mml).forEachRemaining(optimizer::nextToken);
+			MMLTokenizer tokenizer = new MMLTokenizer(mml);
+			while (tokenizer.hasNext()) {
+				tokenizer.advance();
+				optimizer.nextToken(tokenizer);
+			}
 			mml = optimizer.getMinString();
 		}
 
@@ -172,9 +236,18 @@ public final class MMLStringOptimizer {
 	public interface Optimizer {
 		void nextToken(String token);
 		String getMinString();
+
+		/**
+		 * {@link MMLTokenizer#advance()} で進めたトークンを処理する.
+		 * 既定ではプールされたトークン文字列で {@link #nextToken(String)} を呼び出す.
+		 * @param tokenizer 現在のトークン位置にあるTokenizer
+		 */
+		default void nextToken(MMLTokenizer tokenizer) {
+			nextToken(tokenizer.token());
+		}
 	}
 
-	static Map<String, String> getCache() {
+	static OptimizerCache getCache() {
 		return mmlCache;
 	}
 
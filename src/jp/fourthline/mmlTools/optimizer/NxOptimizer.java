@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2015-2024 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.optimizer;
@@ -171,6 +171,24 @@ public class NxOptimizer implements MMLStringOptimizer.Optimizer {
 		printMap();
 	}
 
+	@Override
+	public void nextToken(MMLTokenizer tokenizer) {
+		// 音符とオクターブ指定以外のトークンは, 音名の分解をせずに出力する.
+		char firstC = Character.toLowerCase( tokenizer.charAt(tokenizer.getStart()) );
+		if ( ((firstC >= 'a') && (firstC <= 'g')) || (firstC == '>') || (firstC == '<') || (firstC == 'o') ) {
+			nextToken(tokenizer.token());
+			return;
+		}
+
+		String token = tokenizer.token();
+		try {
+			parser.noteGT(token);
+		} catch (MMLException | ParserWarn3ML e) {}
+
+		addToken(token);
+		printMap();
+	}
+
 	@Override
 	public String getMinString() {
 		return minStack(builderList).builder.toString();
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.optimizer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MML最適化結果のキャッシュ.
+ * <p>
+ * キーは入力MMLの128bitハッシュと長さ, 最適化の種別で構成し, 入力文字列そのものは保持しない.
+ * 保持量は値の文字列長によるバイト数で制限し, ロックはセグメントごとに分割する.
+ * </p>
+ */
+public final class OptimizerCache {
+	private static final int SEGMENT_COUNT = 16;
+
+	/** エントリごとのキー, Map.Entry, Stringヘッダなどの概算サイズ */
+	private static final int ENTRY_OVERHEAD = 96;
+
+	public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+	/**
+	 * キャッシュのキー.
+	 */
+	public static final class Key {
+		private final long hash1;
+		private final long hash2;
+		private final int length;
+		private final int variant;
+
+		Key(long hash1, long hash2, int length, int variant) {
+			this.hash1 = hash1;
+			this.hash2 = hash2;
+			this.length = length;
+			this.variant = variant;
+		}
+
+		/**
+		 * @param variant  最適化の種別 (レベル, オプション)
+		 * @param mml      入力MML
+		 * @return キー
+		 */
+		public static Key of(int variant, String mml) {
+			long h1 = 0xcbf29ce484222325L;
+			long h2 = 0x9e3779b97f4a7c15L;
+			int length = mml.length();
+			for (int i = 0; i < length; i++) {
+				char ch = mml.charAt(i);
+				h1 = (h1 ^ ch) * 0x100000001b3L;
+				h2 = Long.rotateLeft(h2 + ch * 0xc2b2ae3d27d4eb4fL, 31) * 0x165667b19e3779f9L;
+			}
+			return new Key(mix(h1), mix(h2 ^ length), length, variant);
+		}
+
+		private static long mix(long h) {
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			h ^= h >>> 33;
+			return h;
+		}
+
+		public long getHash1() {
+			return hash1;
+		}
+
+		public long getHash2() {
+			return hash2;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public int getVariant() {
+			return variant;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key key)) {
+				return false;
+			}
+			return (hash1 == key.hash1) && (hash2 == key.hash2) && (length == key.length) && (variant == key.variant);
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)(hash1 ^ (hash1 >>> 32)) * 31 + variant;
+		}
+	}
+
+	private final class Segment {
+		private final LinkedHashMap<Key, String> map = new LinkedHashMap<>(16, 0.75f, true);
+		private long weight = 0;
+
+		private synchronized String get(Key key) {
+			return map.get(key);
+		}
+
+		private synchronized void put(Key key, String value) {
+			String old = map.put(key, value);
+			if (old != null) {
+				weight -= weightOf(old);
+			}
+			weight += weightOf(value);
+			trim(maxBytes / SEGMENT_COUNT);
+		}
+
+		private synchronized void trim(long max) {
+			Iterator<String> it = map.values().iterator();
+			while ((weight > max) && it.hasNext()) {
+				weight -= weightOf(it.next());
+				it.remove();
+				evictionCount.increment();
+			}
+		}
+
+		private synchronized void clear() {
+			map.clear();
+			weight = 0;
+		}
+
+		private synchronized int size() {
+			return map.size();
+		}
+
+		private synchronized long weight() {
+			return weight;
+		}
+	}
+
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+	private volatile long maxBytes;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	public OptimizerCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	public OptimizerCache(long maxBytes) {
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment();
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	private static long weightOf(String value) {
+		return ENTRY_OVERHEAD + 2L * value.length();
+	}
+
+	private Segment segmentFor(Key key) {
+		return segments[(int)(key.hash2 >>> 60) & (SEGMENT_COUNT - 1)];
+	}
+
+	public String get(Key key) {
+		String value = segmentFor(key).get(key);
+		if (value != null) {
+			hitCount.increment();
+		} else {
+			missCount.increment();
+		}
+		return value;
+	}
+
+	public void put(Key key, String value) {
+		segmentFor(key).put(key, value);
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * 保持量の上限を設定する. 上限を超えている場合は古いエントリから削除する.
+	 * @param maxBytes 上限 (byte)
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		for (Segment segment : segments) {
+			segment.trim(maxBytes / SEGMENT_COUNT);
+		}
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return 保持しているエントリの概算サイズ (byte)
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for (Segment segment : segments) {
+			weight += segment.weight();
+		}
+		return weight;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "OptimizerCache: size=" + size() + ", weight=" + getWeight() + "/" + maxBytes
+				+ ", hit=" + getHitCount() + ", miss=" + getMissCount() + ", eviction=" + getEvictionCount();
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.optimizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MML最適化結果のディスクキャッシュ.
+ * <p>
+ * 起動時にファイルから読み込み, {@link #save()} でファイルへ書き出す.
+ * バージョンが一致しないファイルは読み込まずに破棄する.
+ * 保持量は値の文字列長によるバイト数で制限し, 上限を超える場合は使われていない順に削除する.
+ * </p>
+ */
+public final class OptimizerDiskCache {
+	private static final String MAGIC = "MMLOptimizerCache";
+
+	/** エントリごとのキーとヘッダの概算サイズ */
+	private static final int ENTRY_OVERHEAD = 32;
+
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private final Path file;
+	private final int version;
+	private final long maxBytes;
+	private final LinkedHashMap<OptimizerCache.Key, String> map = new LinkedHashMap<>(256, 0.75f, true);
+	private long weight = 0;
+	private boolean modified = false;
+
+	private OptimizerDiskCache(Path file, int version, long maxBytes) {
+		this.file = file;
+		this.version = version;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * キャッシュファイルを読み込む. ファイルがない, または読み込めない場合は空のキャッシュになる.
+	 * @param file      キャッシュファイル
+	 * @param version   最適化処理のバージョン
+	 * @param maxBytes  保持量の上限 (byte)
+	 * @return キャッシュ
+	 */
+	public static OptimizerDiskCache open(Path file, int version, long maxBytes) {
+		var cache = new OptimizerDiskCache(file, version, maxBytes);
+		if (Files.exists(file)) {
+			try {
+				cache.load();
+			} catch (IOException | RuntimeException e) {
+				// 壊れたファイルは破棄して, 空のキャッシュで開始する.
+				System.err.println("OptimizerDiskCache: " + e.getMessage());
+				cache.clear();
+			}
+		}
+		return cache;
+	}
+
+	private void load() throws IOException {
+		try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (!MAGIC.equals(in.readUTF()) || (in.readInt() != version)) {
+				// 最適化処理が更新されているので, 古いエントリは使わない.
+				modified = true;
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				long hash1 = in.readLong();
+				long hash2 = in.readLong();
+				int length = in.readInt();
+				int variant = in.readInt();
+				int valueLength = in.readInt();
+				if ((valueLength < 0) || (valueLength > maxBytes)) {
+					throw new IOException("invalid entry length: " + valueLength);
+				}
+				byte[] value = in.readNBytes(valueLength);
+				if (value.length != valueLength) {
+					throw new IOException("unexpected end of file");
+				}
+				putEntry(new OptimizerCache.Key(hash1, hash2, length, variant), new String(value, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	/**
+	 * 変更があればファイルへ書き出す. 一時ファイルへ書き出してから置き換える.
+	 */
+	public synchronized void save() {
+		if (!modified) {
+			return;
+		}
+		try {
+			Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+			try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				out.writeUTF(MAGIC);
+				out.writeInt(version);
+				out.writeInt(map.size());
+				for (Map.Entry<OptimizerCache.Key, String> entry : map.entrySet()) {
+					var key = entry.getKey();
+					out.writeLong(key.getHash1());
+					out.writeLong(key.getHash2());
+					out.writeInt(key.getLength());
+					out.writeInt(key.getVariant());
+					byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+					out.writeInt(value.length);
+					out.write(value);
+				}
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			modified = false;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	public synchronized String get(OptimizerCache.Key key) {
+		return map.get(key);
+	}
+
+	public synchronized void put(OptimizerCache.Key key, String value) {
+		putEntry(key, value);
+		modified = true;
+	}
+
+	private void putEntry(OptimizerCache.Key key, String value) {
+		String old = map.put(key, value);
+		if (old != null) {
+			weight -= weightOf(old);
+		}
+		weight += weightOf(value);
+
+		Iterator<String> it = map.values().iterator();
+		while ((weight > maxBytes) && it.hasNext()) {
+			weight -= weightOf(it.next());
+			it.remove();
+		}
+	}
+
+	private static long weightOf(String value) {
+		return ENTRY_OVERHEAD + value.length();
+	}
+
+	public synchronized void clear() {
+		map.clear();
+		weight = 0;
+		modified = true;
+	}
+
+	public synchronized int size() {
+		return map.size();
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2015-2024 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.optimizer;
@@ -285,4 +285,31 @@ public class OxLxOptimizer implements MMLStringOptimizer.Optimizer {
 
 		printMap();
 	}
+
+	@Override
+	public void nextToken(MMLTokenizer tokenizer) {
+		// オクターブ指定は, トークン文字列と音名の分解を使わずに処理する.
+		int start = tokenizer.getStart();
+		int end = tokenizer.getEnd();
+		char firstC = Character.toLowerCase( tokenizer.charAt(start) );
+		if ( ((firstC == '<') || (firstC == '>')) && (end - start == 1) ) {
+			doToken(firstC, null);
+			printMap();
+			return;
+		} else if ( (firstC == 'o') && (end - start >= 2) && (end - start <= 3) ) {
+			int value = 0;
+			for (int i = start + 1; i < end; i++) {
+				char ch = tokenizer.charAt(i);
+				if ((ch < '0') || (ch > '9')) {
+					nextToken(tokenizer.token());
+					return;
+				}
+				value = value * 10 + (ch - '0');
+			}
+			octD = value - octave;
+			printMap();
+			return;
+		}
+		nextToken(tokenizer.token());
+	}
 }
@@ -1,10 +1,10 @@
 /*
- * Copyright (C) 2014 たんらる
+ * Copyright (C) 2014-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.parser;
 
-import jp.fourthline.mabiicco.midi.InstClass;
+import jp.fourthline.mmlTools.MMLTrack;
 
 
 /**
@@ -27,7 +27,7 @@ public final class Extension3mleTrack {
 		this.trackName = trackName;
 		this.trackCount = 1;
 		this.trackLimit = 0;
-		for (boolean b : InstClass.getEnablePartByProgram(instrument-1)) {
+		for (boolean b : MMLTrack.getInstCatalog().getEnablePart(instrument-1)) {
 			if (b) trackLimit++;
 		}
 	}
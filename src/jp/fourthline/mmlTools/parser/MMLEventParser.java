@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.parser;
@@ -9,15 +9,21 @@ import java.util.Iterator;
 import jp.fourthline.mmlTools.MMLEvent;
 import jp.fourthline.mmlTools.MMLNoteEvent;
 import jp.fourthline.mmlTools.MMLTempoEvent;
+import jp.fourthline.mmlTools.core.MMLTicks;
 import jp.fourthline.mmlTools.core.MMLTokenizer;
-import jp.fourthline.mmlTools.core.MelodyParser;
-import jp.fourthline.mmlTools.core.ParserWarn3ML;
 import jp.fourthline.mmlTools.core.TuningBase;
 import jp.fourthline.mmlTools.core.MMLException;
 
+/**
+ * MMLからノート, テンポのイベント列を生成する.
+ * <p>
+ * トークンは文字列を生成せずに文字配列上で解析し, 音長は数値から tickに変換する.
+ * 通常の形式でない音長 ("4.x" など) のみ {@link MMLTicks#getTick(String)} で変換し, MelodyParserと同じ結果になるようにする.
+ * </p>
+ */
 public final class MMLEventParser implements Iterator<MMLEvent> {
+	private final String mml;
 	private final MMLTokenizer tokenizer;
-	private final MelodyParser parser;
 
 	public MMLEventParser(String mml) {
 		this(mml, 0);
@@ -31,8 +37,8 @@ public final class MMLEventParser implements Iterator<MMLEvent> {
 	public MMLEventParser(String mml, int startOffset) {
 		this.totalTick = startOffset;
 		this.startOffset = startOffset;
+		this.mml = mml;
 		tokenizer = new MMLTokenizer(mml);
-		parser = new MelodyParser(mml);
 	}
 
 	public static int firstNoteNumber(String mml) {
@@ -58,31 +64,93 @@ public final class MMLEventParser implements Iterator<MMLEvent> {
 	private int tuningFirstTick = 0;
 	private int tuningTiedCount = 0;
 
+	// 音長, オクターブ
+	private static final int R_NOTE = Integer.MIN_VALUE;
+	private String mmlL = "4";
+	private int lTick = MMLTicks.lengthTick(4, false);
+	private int lDotTick = MMLTicks.lengthTick(4, true);
+	private int octave = 4;
+
+	private void setLength(int start, int end) {
+		mmlL = mml.substring(start, end);
+		lTick = lDotTick = -1;
+		int tick = MMLTicks.parseTick(mml, start, end);
+		if (tick >= 0) {
+			lTick = tick;
+			// "8." に付点を付けた "8.." は "8." と同じ.
+			lDotTick = (tokenizer.charAt(end - 1) == '.') ? tick : tick + tick / 2;
+		}
+	}
+
+	/**
+	 * l指定による音長のtick
+	 * @param dot 付点
+	 */
+	private int lengthTick(boolean dot) throws MMLException {
+		int tick = dot ? lDotTick : lTick;
+		if (tick >= 0) {
+			return tick;
+		}
+		String gt = dot ? mmlL + "." : mmlL;
+		if (gt.startsWith(".")) {
+			gt = mmlL + ".";
+		}
+		return MMLTicks.getTick(gt);
+	}
+
+	private static int noteIndex(char n1, char n2) {
+		int result = -1;
+		if (n1 < 'a') {
+			n1 += 'a' - 'A';
+		}
+
+		switch (n1) {
+		case 'c': result = 0; break;
+		case 'd': result = 2; break;
+		case 'e': result = 4; break;
+		case 'f': result = 5; break;
+		case 'g': result = 7; break;
+		case 'a': result = 9; break;
+		case 'b': result = 11; break;
+		default : result = -1; break;
+		}
+
+		switch (n2) {
+		case '+':
+		case '#': result++; break;
+		case '-': result--; break;
+		default : break;
+		}
+
+		return result;
+	}
+
 	/**
 	 * @return すべてMMLパースが終っているときは、nullを返す.
 	 */
 	private MMLEvent parseNextEvent() {
 		while (tokenizer.hasNext()) {
-			String token = tokenizer.next();
-			char firstC = token.charAt(0);
+			char firstC = tokenizer.advance();
+			int start = tokenizer.getStart();
+			int end = tokenizer.getEnd();
 			if ( firstC == '&' ) {
 				hasTie = true;
 				continue;
 			}
 			if ( (firstC == 'v') || (firstC == 'V') ) {
 				try {
-					int nextVolume = Integer.parseInt( token.substring(1) );
+					int nextVolume = Integer.parseInt(mml, start + 1, end, 10);
 					if ( (nextVolume >= 0) && (nextVolume <= MMLNoteEvent.MAX_VOL) ) {
 						volume = nextVolume;
 					}
-					continue;
 				} catch (NumberFormatException e) {
 					System.err.println(e.getMessage());
 				}
+				continue;
 			}
 			if ( (firstC == 't') || (firstC == 'T') ) {
 				try {
-					int tempo = Integer.parseInt( token.substring(1) );
+					int tempo = Integer.parseInt(mml, start + 1, end, 10);
 					nextItem = new MMLTempoEvent(tempo, totalTick, totalTick == startOffset);
 				} catch (IllegalArgumentException e) {
 					continue;
@@ -90,39 +158,98 @@ public final class MMLEventParser implements Iterator<MMLEvent> {
 
 				return nextItem;
 			}
+			switch (firstC) {
+			case 'l':
+			case 'L':
+				setLength(start + 1, end);
+				continue;
+			case 'o':
+			case 'O':
+				try {
+					octave = Integer.parseInt(mml, start + 1, end, 10);
+				} catch (NumberFormatException e) {
+					System.err.println("skip: "+tokenizer.token());
+				}
+				continue;
+			case '<':
+				if (octave > 0) {
+					octave--;
+				}
+				continue;
+			case '>':
+				if (octave < 8) {
+					octave++;
+				}
+				continue;
+			default:
+				break;
+			}
+			if (!MMLTokenizer.isNote(firstC)) {
+				continue;
+			}
 			try {
-				int tick = parser.noteGT(token);
-				if (MMLTokenizer.isNote(firstC)) {
-					/* tie でかつ、同じノートであれば、前のNoteEventにTickを加算する */
-					if ( (hasTie) && (prevNoteEvent != null) && (prevNoteEvent.getNote() == parser.getNoteNumber())) {
-						int prevTick = prevNoteEvent.getTick();
-						if (tuningTiedCount == 0) {
-							tuningFirstTick = prevTick;
-						}
-						if ( (tuningFirstTick == tick) && (TuningBase.getInstance(tick) != null) ) {
-							if (++tuningTiedCount >= 3) {
-								// 同一4連以上場合調律符として扱う.
-								prevNoteEvent.setTuningNote(TuningBase.getInstance(tick));
-							}
+				int tick;
+				int noteNumber;
+				if ( (firstC == 'n') || (firstC == 'N') ) {
+					try {
+						noteNumber = Integer.parseInt(mml, start + 1, end, 10);
+					} catch (NumberFormatException e) {
+						throw MMLException.createIllegalNote(tokenizer.token());
+					}
+					tick = (lTick >= 0) ? lTick : MMLTicks.getTick(mmlL);
+				} else {
+					char note2 = (end - start > 1) ? tokenizer.charAt(start + 1) : ' ';
+					int lengthStart = start + 1;
+					if ( (note2 == '+') || (note2 == '-') || (note2 == '#') ) {
+						lengthStart++;
+					}
+					char lengthC = (lengthStart < end) ? tokenizer.charAt(lengthStart) : ' ';
+					if (lengthC == '.') {
+						tick = lengthTick(true);
+					} else if (Character.isDigit(lengthC)) {
+						tick = MMLTicks.parseTick(mml, lengthStart, end);
+						if (tick < 0) {
+							tick = MMLTicks.getTick(mml.substring(lengthStart, end));
 						}
-						prevNoteEvent.setTick(prevTick + tick);
-						prevNoteEvent.getIndexOfMMLString()[1] = tokenizer.getIndex()[1];
-					} else if (parser.getNoteNumber() >= -1) {
-						nextItem = prevNoteEvent;
-						prevNoteEvent = new MMLNoteEvent(parser.getNoteNumber(), tick, totalTick, volume);
-						prevNoteEvent.setIndexOfMMLString(tokenizer.getIndex());
+					} else {
+						tick = lengthTick(false);
 					}
+					if ( (firstC == 'r') || (firstC == 'R') ) {
+						noteNumber = R_NOTE;
+					} else {
+						noteNumber = octave * 12 + noteIndex(firstC, note2);
+					}
+				}
 
-					if (!hasTie) {
-						tuningTiedCount = 0;
+				/* tie でかつ、同じノートであれば、前のNoteEventにTickを加算する */
+				if ( (hasTie) && (prevNoteEvent != null) && (prevNoteEvent.getNote() == noteNumber)) {
+					int prevTick = prevNoteEvent.getTick();
+					if (tuningTiedCount == 0) {
+						tuningFirstTick = prevTick;
 					}
-					hasTie = false;
-					totalTick += tick;
-					if (nextItem != null) {
-						return nextItem;
+					if ( (tuningFirstTick == tick) && (TuningBase.getInstance(tick) != null) ) {
+						if (++tuningTiedCount >= 3) {
+							// 同一4連以上場合調律符として扱う.
+							prevNoteEvent.setTuningNote(TuningBase.getInstance(tick));
+						}
 					}
-				} 
-			} catch (MMLException | ParserWarn3ML e) {
+					prevNoteEvent.setTick(prevTick + tick);
+					prevNoteEvent.getIndexOfMMLString()[1] = end;
+				} else if (noteNumber >= -1) {
+					nextItem = prevNoteEvent;
+					prevNoteEvent = new MMLNoteEvent(noteNumber, tick, totalTick, volume);
+					prevNoteEvent.setIndexOfMMLString(tokenizer.getIndex());
+				}
+
+				if (!hasTie) {
+					tuningTiedCount = 0;
+				}
+				hasTie = false;
+				totalTick += tick;
+				if (nextItem != null) {
+					return nextItem;
+				}
+			} catch (MMLException e) {
 				System.err.println(e.getMessage());
 			}
 
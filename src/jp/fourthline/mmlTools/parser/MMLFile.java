@@ -19,8 +19,7 @@ import java.util.zip.CRC32;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 
-import jp.fourthline.mabiicco.midi.InstType;
-import jp.fourthline.mabiicco.midi.MabiDLS;
+import jp.fourthline.mmlTools.IInstCatalog;
 import jp.fourthline.mmlTools.MMLEvent;
 import jp.fourthline.mmlTools.MMLEventList;
 import jp.fourthline.mmlTools.MMLExceptionList;
@@ -100,16 +99,16 @@ public final class MMLFile extends AbstractMMLParser {
 	private void createTrack() {
 		for (Extension3mleTrack track : trackList) {
 			int program = track.getInstrument() - 1; // 3MLEのInstruments番号は1がスタート.
-			if (MabiDLS.getInstance().getInstByProgram(program) == null) {
+			IInstCatalog instCatalog = MMLTrack.getInstCatalog();
+			if (!instCatalog.isAvailable(program)) {
 				program = 0;
 			}
 			String[] text = new String[] { "", "", "" };
 			for (int i = 0; i < track.getTrackCount(); i++) {
 				text[i] = mmlParts.pop();
 			}
-			InstType instType = MabiDLS.getInstance().getInstByProgram(program).getType();
 			MMLTrack mmlTrack;
-			if ( (instType == InstType.VOICE) || (instType == InstType.CHORUS) ) {
+			if (instCatalog.isSongOnly(program)) {
 				// 歌パート
 				mmlTrack = new MMLTrack().setMML("", "", "", text[0]);
 			} else {
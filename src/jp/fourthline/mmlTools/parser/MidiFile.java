@@ -22,10 +22,7 @@ import java.util.ResourceBundle;
 
 import javax.sound.midi.*;
 
-import jp.fourthline.mabiicco.MabiIccoProperties;
-import jp.fourthline.mabiicco.midi.InstClass;
-import jp.fourthline.mabiicco.midi.InstType;
-import jp.fourthline.mabiicco.midi.MabiDLS;
+import jp.fourthline.mmlTools.IInstCatalog;
 import jp.fourthline.mmlTools.MMLEvent;
 import jp.fourthline.mmlTools.MMLEventList;
 import jp.fourthline.mmlTools.MMLExceptionList;
@@ -278,10 +275,10 @@ public final class MidiFile extends AbstractMMLParser {
 			track.setTrackName(name);
 			track.setPanpot(panpot);
 			var trackProgram = program;
-			if ((program == InstClass.DRUM) && (MabiIccoProperties.getInstance().soundEnv.get().useDLS())) {
-				InstClass[] insts = MabiDLS.getInstance().getAvailableInstByInstType(List.of(InstType.DRUMS));
-				if (insts.length > 0) {
-					trackProgram = insts[0].getProgram();
+			if (program == IInstCatalog.DRUM) {
+				int drumProgram = MMLTrack.getInstCatalog().getDrumProgram();
+				if (drumProgram >= 0) {
+					trackProgram = drumProgram;
 				}
 			}
 			track.setProgram(trackProgram);
@@ -431,7 +428,7 @@ public final class MidiFile extends AbstractMMLParser {
 				}
 				MMLTrack track = trackInfo.createMMLTrack();
 				track.setMML(mml[0], mml[1], mml[2], "");
-				if (trackInfo.program == InstClass.DRUM) {
+				if (trackInfo.program == IInstCatalog.DRUM) {
 					// ドラム変換用に基準データをセットしておく.
 					track.setImportedData(MMLScoreSerializer.toStringImportedData(list));
 				}
@@ -547,7 +544,7 @@ public final class MidiFile extends AbstractMMLParser {
 	}
 
 	private int convertMidiNote(TrackInfo trackInfo, int data) {
-		if (trackInfo.program != InstClass.DRUM) {
+		if (trackInfo.program != IInstCatalog.DRUM) {
 			data -= (parseConvertOctave ? 12 : 0);
 		}
 		return data;
@@ -604,7 +601,7 @@ public final class MidiFile extends AbstractMMLParser {
 		case ShortMessage.PROGRAM_CHANGE:
 			System.out.printf("program change: [%d] [%d] (%d)\n", data1, data2, channel);
 			if (channel == 9) {
-				trackInfo.setProgram(InstClass.DRUM);
+				trackInfo.setProgram(IInstCatalog.DRUM);
 			} else {
 				if (!canConvertInst) {
 					trackInfo.setProgram(data1);
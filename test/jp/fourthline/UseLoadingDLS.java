@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2015-2021 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline;
@@ -21,6 +21,8 @@ import javax.sound.sampled.LineUnavailableException;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 
+import jp.fourthline.mabiicco.MabiIccoProperties;
+import jp.fourthline.mabiicco.midi.DLSInstCatalog;
 import jp.fourthline.mabiicco.midi.InstClass;
 import jp.fourthline.mabiicco.midi.InstType;
 import jp.fourthline.mabiicco.midi.MabiDLS;
@@ -38,6 +40,7 @@ public abstract class UseLoadingDLS extends FileSelect {
 					midi.loadingDLSFile(new File(t));
 				}
 			}
+			MMLTrack.setInstCatalog(new DLSInstCatalog(midi, MabiIccoProperties.getInstance()));
 		} catch (IOException | MidiUnavailableException | InvalidMidiDataException | LineUnavailableException e) {
 			throw new AssertionError();
 		}
@@ -46,6 +49,7 @@ public abstract class UseLoadingDLS extends FileSelect {
 	@AfterClass
 	public static void cleanupDLS() {
 		InstClass.debug = false;
+		MMLTrack.setInstCatalog(null);
 	}
 
 	protected String createStringN(char c, int n) {
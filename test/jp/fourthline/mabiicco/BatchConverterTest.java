@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jp.fourthline.FileSelect;
+import jp.fourthline.mmlTools.MMLScore;
+import jp.fourthline.mmlTools.MMLScoreSerializer;
+
+public final class BatchConverterTest extends FileSelect {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File copyResource(File dir, String name) throws Exception {
+		File file = new File(dir, name);
+		file.getParentFile().mkdirs();
+		try (InputStream in = fileSelect("/jp/fourthline/mmlTools/parser/" + new File(name).getName())) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+
+	private static MMLScore readMMI(File file) throws Exception {
+		try (var in = new FileInputStream(file)) {
+			return new MMLScoreSerializer(new MMLScore()).parse(in);
+		}
+	}
+
+	@Test
+	public void test_convertDirectory() throws Exception {
+		File inDir = folder.newFolder("in");
+		File outDir = folder.newFolder("out");
+		copyResource(inDir, "sample1.mms");
+		copyResource(inDir, "sub/sample2.mmi");
+		Files.writeString(new File(inDir, "ignore.dat").toPath(), "dummy");
+
+		var converter = new BatchConverter()
+				.setFormat(BatchConverter.Format.MMI)
+				.setOutDir(outDir)
+				.setRecursive(true)
+				.setJobs(2)
+				.setUseDLS(false)
+				.addInput(inDir);
+		var log = new ByteArrayOutputStream();
+		List<BatchConverter.Result> results = converter.execute(new PrintStream(log, true));
+
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).toString(), results.get(0).isOk());
+		assertTrue(results.get(1).toString(), results.get(1).isOk());
+		assertEquals(new File(outDir, "sample1.mmi"), results.get(0).output());
+		assertEquals(new File(outDir, "sub/sample2.mmi"), results.get(1).output());
+		assertTrue(log.toString().contains("[OK]"));
+
+		MMLScore score = readMMI(results.get(0).output());
+		assertTrue(score.getTrackCount() > 0);
+
+		// 上書きしない
+		results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertFalse(results.get(0).isOk());
+		converter.setOverwrite(true);
+		results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertTrue(results.get(0).isOk());
+	}
+
+	@Test
+	public void test_convertMML() throws Exception {
+		File dir = folder.newFolder("mml");
+		File input = copyResource(dir, "sample1.mmi");
+
+		var converter = new BatchConverter()
+				.setFormat(BatchConverter.Format.MML)
+				.setUseDLS(false)
+				.addInput(input);
+		var results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertEquals(1, results.size());
+		assertTrue(results.get(0).toString(), results.get(0).isOk());
+		assertEquals(new File(dir, "sample1.mml.txt"), results.get(0).output());
+
+		MMLScore score = readMMI(input).generateAll();
+		var lines = Files.readAllLines(results.get(0).output().toPath());
+		assertEquals(score.getTrackCount() * 2, lines.size());
+		for (int i = 0; i < score.getTrackCount(); i++) {
+			assertEquals(score.getTrack(i).getMabiMML(), lines.get(i * 2 + 1));
+		}
+	}
+
+	/**
+	 * 音源を読み込まずに 3MLE形式を変換する.
+	 */
+	@Test
+	public void test_convert3mle() throws Exception {
+		File dir = folder.newFolder("3mle");
+		File input = copyResource(dir, "sample2.mml");
+		var converter = new BatchConverter()
+				.setUseDLS(false)
+				.addInput(input);
+		var results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertTrue(results.get(0).toString(), results.get(0).isOk());
+
+		MMLScore score = readMMI(results.get(0).output());
+		assertEquals(2, score.getTrackCount());
+		assertEquals("MML@cde,r2.fga,;", score.getTrack(0).getOriginalMML());
+	}
+
+	@Test
+	public void test_error() throws Exception {
+		File dir = folder.newFolder("err");
+		File input = copyResource(dir, "sample1.mmi");
+		var converter = new BatchConverter()
+				.setOutDir(dir)
+				.setUseDLS(false)
+				.addInput(input)
+				.addInput(new File(dir, "notfound.mml"));
+		var results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertEquals(2, results.size());
+		assertEquals("same as input file", results.get(0).error());
+		assertFalse(results.get(1).isOk());
+	}
+
+	/**
+	 * 出力ファイルが他の入力ファイル, 出力ファイルと重なる場合は変換しない.
+	 */
+	@Test
+	public void test_conflict() throws Exception {
+		File dir = folder.newFolder("conflict");
+		File mmi = copyResource(dir, "sample1.mmi");
+		File mms = copyResource(dir, "sample1.mms");
+		long mmiSize = mmi.length();
+		var converter = new BatchConverter()
+				.setOverwrite(true)
+				.setUseDLS(false)
+				.addInput(dir);
+		var results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertEquals(2, results.size());
+		assertEquals(mmi, results.get(0).input());
+		assertEquals("same as input file", results.get(0).error());
+		assertEquals(mms, results.get(1).input());
+		assertEquals("output file conflicts with other input file", results.get(1).error());
+		assertEquals(mmiSize, mmi.length());
+
+		File outDir = folder.newFolder("conflictOut");
+		converter.setOutDir(outDir);
+		results = converter.execute(new PrintStream(new ByteArrayOutputStream()));
+		assertTrue(results.get(0).toString(), results.get(0).isOk());
+		assertEquals("output file conflicts with other output file", results.get(1).error());
+	}
+}
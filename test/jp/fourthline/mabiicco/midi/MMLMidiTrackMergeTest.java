@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jp.fourthline.mabiicco.midi.MMLMidiTrack.OverlapMode;
+import jp.fourthline.mmlTools.MMLNoteEvent;
+
+/**
+ * 音源を使用しない MMLMidiTrack のマージのテスト.
+ */
+public final class MMLMidiTrackMergeTest {
+
+	/**
+	 * 1ノートずつ先頭から挿入位置を探す変換 (マージ前の実装).
+	 */
+	private static final class ReferenceTrack {
+		private final ArrayList<MMLNoteEvent> list = new ArrayList<>();
+		private final boolean overlap;
+		private int attackDelayCorrect = 0;
+
+		private ReferenceTrack(boolean overlap) {
+			this.overlap = overlap;
+		}
+
+		private void add(List<MMLNoteEvent> addList) {
+			for (MMLNoteEvent addEvent : addList) {
+				addItem(addEvent);
+			}
+		}
+
+		private void addItem(MMLNoteEvent addEvent) {
+			int targetTick = addEvent.getTickOffset();
+			int tick = addEvent.getTick();
+			int targetIndex = 0;
+			if (attackDelayCorrect != 0) {
+				targetTick += attackDelayCorrect;
+				if (targetTick < 0) {
+					tick += targetTick;
+					if (tick <= 0) return;
+					targetTick = 0;
+				}
+			}
+			int note = addEvent.getNote();
+			while (targetIndex < list.size()) {
+				int tickOffset = list.get(targetIndex).getTickOffset();
+				if (tickOffset > targetTick) {
+					break;
+				}
+				targetIndex++;
+				if ((tickOffset == targetTick) && (list.get(targetIndex-1).getNote() == note)) {
+					break;
+				}
+			}
+			if (!overlap) {
+				if (targetIndex > 0) {
+					var prev = list.get(targetIndex - 1);
+					if ((note == prev.getNote()) && (prev.getTickOffset() == targetTick)) {
+						if (prev.getTick() >= tick) {
+							prev.setTick(tick);
+						}
+						return;
+					}
+				}
+				if (targetIndex < list.size()) {
+					var next = list.get(targetIndex);
+					if (note == next.getNote()) {
+						int tickOverlap = targetTick + tick - next.getTickOffset();
+						if (tickOverlap > 0) {
+							tick -= tickOverlap;
+						}
+					}
+				}
+			}
+			var event = new MMLNoteEvent(note, tick, targetTick, addEvent.getVelocity());
+			event.setMute(addEvent.isMute());
+			list.add(targetIndex, event);
+		}
+	}
+
+	private static List<MMLNoteEvent> createPart(Random random) {
+		var list = new ArrayList<MMLNoteEvent>();
+		int tickOffset = 0;
+		for (int i = 0; i < 40; i++) {
+			tickOffset += random.nextInt(4) * 12;
+			int tick = (random.nextInt(4) + 1) * 12;
+			var noteEvent = new MMLNoteEvent(48 + random.nextInt(3), tick, tickOffset, random.nextInt(16));
+			noteEvent.setMute(random.nextInt(8) == 0);
+			list.add(noteEvent);
+			tickOffset += tick;
+		}
+		return list;
+	}
+
+	private static void assertSameAsReference(OverlapMode mode, boolean overlap) {
+		var random = new Random(1234);
+		for (int n = 0; n < 200; n++) {
+			var midiTrack = new MMLMidiTrack(null, mode);
+			var reference = new ReferenceTrack(overlap);
+			int partCount = random.nextInt(4) + 1;
+			for (int i = 0; i < partCount; i++) {
+				var part = createPart(random);
+				int attackDelayCorrect = random.nextInt(3) * -6;
+				midiTrack.setAttackDelayCorrect(attackDelayCorrect);
+				reference.attackDelayCorrect = attackDelayCorrect;
+				midiTrack.add(part);
+				reference.add(part);
+				if (random.nextInt(4) == 0) {
+					// 途中で変換結果を参照しても, 続けて追加できる.
+					assertEquals(reference.list, midiTrack.getNoteEventList());
+				}
+			}
+			assertEquals(reference.list, midiTrack.getNoteEventList());
+		}
+	}
+
+	@Test
+	public void test_none() {
+		assertSameAsReference(OverlapMode.NONE, false);
+	}
+
+	@Test
+	public void test_all() {
+		assertSameAsReference(OverlapMode.ALL, true);
+	}
+
+	@Test
+	public void test_noOverlap() {
+		var midiTrack = new MMLMidiTrack(null, OverlapMode.NONE);
+		midiTrack.add(List.of(new MMLNoteEvent(48, 384, 0), new MMLNoteEvent(48, 192, 384, 8)));
+		midiTrack.add(List.of(new MMLNoteEvent(48, 96, 96, 12)));
+		midiTrack.setAttackDelayCorrect(-12);
+		midiTrack.add(List.of(new MMLNoteEvent(48, 12, 0, 13), new MMLNoteEvent(48, 96, 396, 13)));
+
+		var list = new ArrayList<MMLNoteEvent>();
+		list.add(new MMLNoteEvent(48, 384, 0));
+		list.add(new MMLNoteEvent(48, 96, 96, 12));
+		list.add(new MMLNoteEvent(48, 96, 384, 8));
+		assertEquals(list, midiTrack.getNoteEventList());
+	}
+}
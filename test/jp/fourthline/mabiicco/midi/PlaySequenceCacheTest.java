@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+
+import org.junit.Test;
+
+import jp.fourthline.mmlTools.MMLNoteEvent;
+import jp.fourthline.mmlTools.MMLTempoEvent;
+
+public final class PlaySequenceCacheTest {
+
+	private static void build(Track track) throws InvalidMidiDataException {
+		track.add(new MidiEvent(new ExtendMessage(ShortMessage.NOTE_ON, 0, 60, 100), 0));
+	}
+
+	@Test
+	public void test_reuse() throws InvalidMidiDataException {
+		var cache = new PlaySequenceCache();
+		cache.begin();
+		cache.add(PlaySequenceCache.TEMPO_KEY, 1, PlaySequenceCacheTest::build);
+		cache.add(0, 10, PlaySequenceCacheTest::build);
+		cache.add(1, 20, PlaySequenceCacheTest::build);
+		Sequence seq1 = cache.end();
+		assertEquals(3, cache.getBuildCount());
+		assertEquals(3, seq1.getTracks().length);
+
+		// 変更のないパートは同じMIDIトラックを使用する.
+		cache.begin();
+		cache.add(PlaySequenceCache.TEMPO_KEY, 1, PlaySequenceCacheTest::build);
+		cache.add(0, 10, PlaySequenceCacheTest::build);
+		cache.add(1, 21, PlaySequenceCacheTest::build);
+		Sequence seq2 = cache.end();
+		assertNotSame(seq1, seq2);
+		assertEquals(1, cache.getBuildCount());
+		assertEquals(3, seq2.getTracks().length);
+		assertSame(seq1.getTracks()[0], seq2.getTracks()[0]);
+		assertSame(seq1.getTracks()[1], seq2.getTracks()[1]);
+		assertNotSame(seq1.getTracks()[2], seq2.getTracks()[2]);
+		assertEquals(2, seq2.getTracks()[2].size());
+
+		// 追加しなかったパートは破棄する.
+		cache.begin();
+		cache.add(PlaySequenceCache.TEMPO_KEY, 1, PlaySequenceCacheTest::build);
+		Sequence seq3 = cache.end();
+		assertEquals(0, cache.getBuildCount());
+		assertEquals(1, seq3.getTracks().length);
+
+		cache.begin();
+		cache.add(0, 10, PlaySequenceCacheTest::build);
+		cache.end();
+		assertEquals(1, cache.getBuildCount());
+
+		cache.clear();
+		cache.begin();
+		cache.add(0, 10, PlaySequenceCacheTest::build);
+		cache.end();
+		assertEquals(1, cache.getBuildCount());
+	}
+
+	@Test
+	public void test_fingerprint() {
+		var list = List.of(new MMLNoteEvent(48, 96, 0, 8), new MMLNoteEvent(50, 96, 96, 8));
+		long base = PlaySequenceCache.fingerprint(list, 0, 0);
+		assertEquals(base, PlaySequenceCache.fingerprint(List.of(new MMLNoteEvent(48, 96, 0, 8), new MMLNoteEvent(50, 96, 96, 8)), 0, 0));
+
+		// ノート, 音量, ミュート
+		assertNotEquals(base, PlaySequenceCache.fingerprint(List.of(new MMLNoteEvent(48, 96, 0, 8), new MMLNoteEvent(51, 96, 96, 8)), 0, 0));
+		assertNotEquals(base, PlaySequenceCache.fingerprint(List.of(new MMLNoteEvent(48, 96, 0, 8), new MMLNoteEvent(50, 96, 96, 9)), 0, 0));
+		var muteNote = new MMLNoteEvent(50, 96, 96, 8);
+		muteNote.setMute(true);
+		assertNotEquals(base, PlaySequenceCache.fingerprint(List.of(new MMLNoteEvent(48, 96, 0, 8), muteNote), 0, 0));
+
+		// 楽器, アタック遅延補正
+		assertNotEquals(base, PlaySequenceCache.fingerprint(list, 1, 0));
+		assertNotEquals(base, PlaySequenceCache.fingerprint(list, 0, -6));
+	}
+
+	@Test
+	public void test_tempoFingerprint() {
+		var tempoList = List.of(new MMLTempoEvent(120, 0), new MMLTempoEvent(150, 384));
+		long base = PlaySequenceCache.tempoFingerprint(tempoList, 768);
+		assertNotEquals(base, PlaySequenceCache.tempoFingerprint(List.of(new MMLTempoEvent(120, 0), new MMLTempoEvent(140, 384)), 768));
+		// 曲の長さ以降のテンポは含まない.
+		assertEquals(PlaySequenceCache.tempoFingerprint(tempoList, 384), PlaySequenceCache.tempoFingerprint(List.of(new MMLTempoEvent(120, 0)), 384));
+	}
+}
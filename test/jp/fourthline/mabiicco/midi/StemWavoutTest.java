@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiUnavailableException;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.sampled.AudioSystem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jp.fourthline.mmlTools.MMLScore;
+import jp.fourthline.mmlTools.MMLTrack;
+import jp.fourthline.mmlTools.core.MMLTickTable;
+
+public final class StemWavoutTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static MMLScore createScore() {
+		var score = new MMLScore();
+		score.addTrack(new MMLTrack().setMML("MML@c,,;"));
+		score.addTrack(new MMLTrack().setMML("MML@d,,;"));
+		score.addTrack(new MMLTrack().setMML("MML@e,,;"));
+		score.getTrack(0).setTrackName("Track1");
+		score.getTrack(1).setTrackName("a/b:c");
+		score.getTrack(2).setTrackName("");
+		return score;
+	}
+
+	/**
+	 * トラック番号の数だけ拍を空けて, 1拍鳴らす.
+	 */
+	private static WavRenderer createRenderer(int trackIndex) throws InvalidMidiDataException, MidiUnavailableException {
+		Sequence sequence = new Sequence(Sequence.PPQ, MMLTickTable.TPQN);
+		var track = sequence.createTrack();
+		long tick = (long) MMLTickTable.TPQN * trackIndex;
+		track.add(new MidiEvent(new ExtendMessage(ShortMessage.NOTE_ON, trackIndex, 60, 100), tick));
+		track.add(new MidiEvent(new ExtendMessage(ShortMessage.NOTE_OFF, trackIndex, 60, 0), tick + MMLTickTable.TPQN));
+		var info = new HashMap<String, Object>();
+		info.put("midi channels", 16);
+		return new WavRenderer(sequence, 120, info);
+	}
+
+	@Test
+	public void test_stemFile() {
+		File base = new File("dir", "song.wav");
+		assertEquals(new File(base.getAbsoluteFile().getParentFile(), "song_01_Track1.wav"), StemWavout.stemFile(base, 0, "Track1"));
+		assertEquals(new File(base.getAbsoluteFile().getParentFile(), "song_12_a_b_c.wav"), StemWavout.stemFile(base, 11, "a/b:c"));
+		assertEquals(new File(base.getAbsoluteFile().getParentFile(), "song_03.wav"), StemWavout.stemFile(base, 2, " "));
+	}
+
+	@Test
+	public void test_render() throws Exception {
+		File base = new File(folder.getRoot(), "song.wav");
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		var stems = new StemWavout(createScore(), base, 2, t -> {
+			threads.add(Thread.currentThread().getName());
+			return createRenderer(t);
+		});
+		var files = stems.getFiles();
+		assertEquals(3, files.size());
+		assertEquals("song_01_Track1.wav", files.get(0).getName());
+		assertEquals("song_02_a_b_c.wav", files.get(1).getName());
+		assertEquals("song_03.wav", files.get(2).getName());
+
+		assertTrue(stems.render());
+		assertTrue(threads.size() <= 2);
+
+		long totalLen = 0;
+		int frameSize = WavRenderer.FORMAT.getFrameSize();
+		for (int i = 0; i < files.size(); i++) {
+			try (var in = AudioSystem.getAudioInputStream(files.get(i))) {
+				byte[] data = in.readAllBytes();
+				totalLen += data.length;
+				int first = 0;
+				while ((first < data.length) && (data[first] == 0)) {
+					first++;
+				}
+				// 全トラックとも曲の先頭から出力する. tempo 120 で1拍 0.5s.
+				assertEquals(0.5 * i, (double) (first / frameSize) / 44100.0, 0.02);
+			}
+		}
+		assertEquals(totalLen, stems.getLen());
+	}
+
+	@Test
+	public void test_cancel() throws Exception {
+		File base = new File(folder.getRoot(), "cancel.wav");
+		var stems = new StemWavout(createScore(), base, 1, t -> createRenderer(t));
+		stems.cancel();
+		assertFalse(stems.render());
+		assertEquals(0, stems.getLen());
+		for (File file : stems.getFiles()) {
+			assertFalse(file.exists());
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.midi;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.HashMap;
+
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.sampled.AudioSystem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jp.fourthline.mmlTools.MMLTempoEvent;
+import jp.fourthline.mmlTools.core.MMLTickTable;
+
+public final class WavRendererTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final int CHANNEL = 20;
+
+	/**
+	 * 1拍目を休符, 2拍目に1拍の音を鳴らす. 途中で tempo 120 -> 60.
+	 */
+	private static Sequence createSequence() throws Exception {
+		Sequence sequence = new Sequence(Sequence.PPQ, MMLTickTable.TPQN);
+		var track = sequence.createTrack();
+		byte[] tempo = new MMLTempoEvent(60, 0).getMetaData();
+		track.add(new MidiEvent(new MetaMessage(MMLTempoEvent.META, tempo, tempo.length), MMLTickTable.TPQN / 2));
+		track = sequence.createTrack();
+		track.add(new MidiEvent(new ExtendMessage(ShortMessage.NOTE_ON, CHANNEL, 60, 100), MMLTickTable.TPQN));
+		track.add(new MidiEvent(new ExtendMessage(ShortMessage.NOTE_OFF, CHANNEL, 60, 0), MMLTickTable.TPQN * 2));
+		return sequence;
+	}
+
+	private static WavRenderer createRenderer() throws Exception {
+		var info = new HashMap<String, Object>();
+		info.put("midi channels", 32);
+		var renderer = new WavRenderer(createSequence(), 120, info);
+		// 拡張チャンネルが下位4bitのチャンネルで鳴らないことを確認するためにミュートしておく.
+		renderer.getChannels()[CHANNEL & 0xf].setMute(true);
+		return renderer;
+	}
+
+	@Test
+	public void test_render() throws Exception {
+		File file = folder.newFile("out.wav");
+		var renderer = createRenderer();
+		assertTrue(renderer.render(file));
+
+		try (var in = AudioSystem.getAudioInputStream(file)) {
+			assertEquals(WavRenderer.FORMAT.toString(), in.getFormat().toString());
+			long frames = in.getFrameLength();
+			assertEquals(renderer.getLen(), frames * WavRenderer.FORMAT.getFrameSize());
+			assertEquals(file.length(), renderer.getLen() + 44);
+
+			// 0.25s (tempo 120 の1/2拍) + 0.5s (tempo 60 の1/2拍) で発音する.
+			byte[] data = in.readAllBytes();
+			int frameSize = WavRenderer.FORMAT.getFrameSize();
+			int first = -1;
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] != 0) {
+					first = i / frameSize;
+					break;
+				}
+			}
+			assertEquals(0.75, first / 44100.0, 0.02);
+			// 発音は1秒, 最後は無音になるまで出力する.
+			assertTrue(frames / 44100.0 > 1.75);
+			assertTrue(frames / 44100.0 < 1.75 + 10.0);
+		}
+	}
+
+	@Test
+	public void test_cancel() throws Exception {
+		File file = folder.newFile("cancel.wav");
+		var renderer = createRenderer();
+		renderer.cancel();
+		assertFalse(renderer.render(file));
+		assertEquals(0, renderer.getLen());
+		try (var in = AudioSystem.getAudioInputStream(file)) {
+			assertEquals(0, in.getFrameLength());
+		}
+	}
+}
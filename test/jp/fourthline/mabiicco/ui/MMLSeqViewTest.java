@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2015-2024 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline.mabiicco.ui;
@@ -23,8 +23,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import jp.fourthline.UseLoadingDLS;
-import jp.fourthline.mabiicco.MabiIcco;
 import jp.fourthline.mabiicco.MabiIccoProperties;
+import jp.fourthline.mabiicco.midi.DLSInstCatalog;
 import jp.fourthline.mabiicco.midi.InstType;
 import jp.fourthline.mabiicco.midi.MabiDLS;
 import jp.fourthline.mmlTools.MMLEventList;
@@ -588,8 +588,7 @@ public final class MMLSeqViewTest extends UseLoadingDLS {
 	@Test
 	public void test_changeInst2() throws Exception {
 		MabiIccoProperties.getInstance().percussionMotionFix.set(true);
-		var m = new MabiIcco(null);
-		MMLTrack.setPercussionMotionFixFunction(t -> m.percussionMotionFix(t));
+		MMLTrack.setInstCatalog(new DLSInstCatalog(MabiDLS.getInstance(), MabiIccoProperties.getInstance()));
 
 		MMLTrack track1 = createMMLTrack(1200, 400, 400, 1200, false);
 		MMLScore score = new MMLScore();
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mabiicco.ui.editor;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import jp.fourthline.mmlTools.MMLScoreSnapshot.Parts;
+
+public class UndoHistoryTest {
+	private static byte[] b(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * "header|track1|track2..." の形式の状態
+	 */
+	private static Parts p(String s) {
+		String[] list = s.split("\\|", -1);
+		byte[][] tracks = new byte[list.length - 1][];
+		for (int i = 0; i < tracks.length; i++) {
+			tracks[i] = b(list[i+1]);
+		}
+		return new Parts(b(list[0]), tracks);
+	}
+
+	private static String s(Parts parts) {
+		var sb = new StringBuilder(new String(parts.header(), StandardCharsets.UTF_8));
+		for (byte[] track : parts.tracks()) {
+			sb.append('|').append(new String(track, StandardCharsets.UTF_8));
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public final void test_delta() {
+		String[][] patterns = {
+				{ "abcdef", "abXdef" },
+				{ "abcdef", "abdef" },
+				{ "abcdef", "abcXXdef" },
+				{ "abc", "abcabc" },
+				{ "aaaa", "aa" },
+				{ "", "abc" },
+				{ "abc", "" },
+				{ "abc", "abc" },
+		};
+		for (String[] p : patterns) {
+			var delta = UndoHistory.Delta.diff(b(p[0]), b(p[1]));
+			assertEquals(p[1], new String(delta.apply(b(p[0])), StandardCharsets.UTF_8));
+		}
+		assertEquals(1, UndoHistory.Delta.diff(b("abcdef"), b("abXdef")).data().length);
+	}
+
+	@Test
+	public final void test_undoRedo() {
+		var history = new UndoHistory(10, Long.MAX_VALUE);
+		history.init(p("h|s0"));
+		history.push(p("h|s1"));
+		history.push(p("h|s12"));
+		assertEquals(3, history.undoSize());
+		assertTrue(history.isCurrent(p("h|s12")));
+
+		assertEquals("h|s1", s(history.undo()));
+		assertEquals("h|s0", s(history.undo()));
+		assertFalse(history.canUndo());
+		assertEquals(2, history.redoSize());
+		assertEquals("h|s1", s(history.redo()));
+		assertEquals("h|s12", s(history.redo()));
+		assertFalse(history.canRedo());
+
+		history.undo();
+		history.push(p("h|s13"));
+		assertFalse(history.canRedo());
+		assertEquals("h|s1", s(history.undo()));
+	}
+
+	@Test
+	public final void test_tracks() {
+		var history = new UndoHistory(10, Long.MAX_VALUE);
+		var s0 = p("h|aaa|bbb|ccc");
+		history.init(s0);
+
+		// 変更のないトラックは同じ配列を使用し, 差分を持たない.
+		var s1 = new Parts(s0.header(), new byte[][] { s0.tracks()[0], b("bXb"), s0.tracks()[2] });
+		history.push(s1);
+		assertEquals(16 + 4 + (1 + 16) + 4, history.getUndoBytes());
+
+		// トラックの追加, 削除, 入れ替え
+		var s2 = new Parts(b("h2"), new byte[][] { s1.tracks()[2], s1.tracks()[0], b("ddd") });
+		history.push(s2);
+		var s3 = new Parts(s2.header(), new byte[][] { s2.tracks()[1] });
+		history.push(s3);
+
+		assertEquals("h2|ccc|aaa|ddd", s(history.undo()));
+		Parts undo = history.undo();
+		assertEquals("h|aaa|bXb|ccc", s(undo));
+		assertSame(history.current(), undo);
+		assertTrue(history.isCurrent(s1));
+		assertEquals("h|aaa|bbb|ccc", s(history.undo()));
+		assertSame(undo.tracks()[0], history.current().tracks()[0]);
+		assertSame(undo.tracks()[2], history.current().tracks()[2]);
+
+		assertEquals("h|aaa|bXb|ccc", s(history.redo()));
+		assertEquals("h2|ccc|aaa|ddd", s(history.redo()));
+		assertEquals("h2|aaa", s(history.redo()));
+		assertFalse(history.canRedo());
+	}
+
+	@Test
+	public final void test_isCurrent() {
+		var history = new UndoHistory(10, Long.MAX_VALUE);
+		assertFalse(history.isCurrent(p("h|a")));
+		history.init(p("h|a|b"));
+		assertTrue(history.isCurrent(p("h|a|b")));
+		assertFalse(history.isCurrent(p("h|a|c")));
+		assertFalse(history.isCurrent(p("h|a")));
+		assertFalse(history.isCurrent(p("g|a|b")));
+	}
+
+	@Test
+	public final void test_limit() {
+		var history = new UndoHistory(5, Long.MAX_VALUE);
+		history.init(p("0"));
+		int removed = 0;
+		for (int i = 1; i < 10; i++) {
+			removed += history.push(p(Integer.toString(i)));
+		}
+		assertEquals(5, history.undoSize());
+		assertEquals(5, removed);
+
+		history = new UndoHistory(1000, 200);
+		history.init(p("h|0"));
+		for (int i = 1; i < 100; i++) {
+			history.push(p("h|" + "x".repeat(i)));
+		}
+		assertTrue(history.getUndoBytes() <= 200);
+		assertTrue(history.canUndo());
+	}
+
+	@Test
+	public final void test_writeRead() throws IOException {
+		var history = new UndoHistory(10, Long.MAX_VALUE);
+		history.init(p("MML@|aaa|bbb|ccc"));
+		history.push(p("MML@|aaa|bcb|ccc"));
+		history.push(p("MML@|aaa|bcb|cccc|d"));
+		history.undo();
+
+		var ostream = new ByteArrayOutputStream();
+		history.write(new PrintStream(ostream, true, StandardCharsets.UTF_8));
+
+		var history2 = new UndoHistory(10, Long.MAX_VALUE);
+		history2.read(new BufferedReader(new StringReader(ostream.toString(StandardCharsets.UTF_8))));
+		assertTrue(history2.isCurrent(p("MML@|aaa|bcb|ccc")));
+		assertEquals(2, history2.undoSize());
+		assertEquals(history.getUndoBytes(), history2.getUndoBytes());
+		assertEquals("MML@|aaa|bcb|cccc|d", s(history2.redo()));
+		history2.undo();
+		assertEquals("MML@|aaa|bbb|ccc", s(history2.undo()));
+	}
+}
@@ -183,6 +183,46 @@ public class MMLEventListTest {
 		assertEquals(expected, actual);
 	}
 
+	/**
+	 * Test method for {@link jp.fourthline.mmlTools.MMLEventList#addAll(List)}.
+	 * 1つずつ追加した場合と同じ結果になること.
+	 */
+	@Test
+	public void testAddAll_0() {
+		String[] mmlList = { "", "aaa", "c8d8e8f8g8a8b8>c8", "rrrr1a1", "l64cdefgab>cdefgab" };
+		String[] addList = { "b-", "rb-8b-2", "l16rrrb-b-b-r2b-", "r1.b-1b-1", "b-64" };
+		for (String mml : mmlList) {
+			for (String add : addList) {
+				MMLEventList expectList = new MMLEventList(mml);
+				new MMLEventList(add).getMMLNoteEventList().forEach(expectList::addMMLNoteEvent);
+
+				MMLEventList eventList = new MMLEventList(mml);
+				eventList.addAll(new MMLEventList(add).getMMLNoteEventList());
+
+				assertEquals(mml + " + " + add, expectList.getMMLNoteEventList().toString(), eventList.getMMLNoteEventList().toString());
+			}
+		}
+	}
+
+	/**
+	 * 同じ位置, 接するノートを含む場合.
+	 */
+	@Test
+	public void testAddAll_1() throws MMLException {
+		int t4 = MMLTicks.getTick("4");
+		MMLEventList expectList = new MMLEventList("aaaa");
+		MMLEventList eventList = new MMLEventList("aaaa");
+		List<MMLNoteEvent> addNotes = List.of(
+				new MMLNoteEvent(58, t4, t4),
+				new MMLNoteEvent(59, t4, t4),
+				new MMLNoteEvent(60, t4*2, t4*2),
+				new MMLNoteEvent(61, t4/2, t4*3));
+		addNotes.forEach(t -> expectList.addMMLNoteEvent(t.clone()));
+		eventList.addAll(addNotes);
+
+		assertEquals(expectList.getMMLNoteEventList().toString(), eventList.getMMLNoteEventList().toString());
+	}
+
 	/**
 	 * @throws MMLException 
 	 */
@@ -234,6 +274,30 @@ public class MMLEventListTest {
 		assertEquals(58, noteEvent3.getNote());
 	}
 
+	@Test
+	public void testSearchOnTickOffset_rest() throws MMLException {
+		int t4 = MMLTicks.getTick("4");
+		MMLEventList eventList = new MMLEventList("rarb-r");
+
+		assertEquals(null, eventList.searchOnTickOffset(0));
+		assertEquals(57, eventList.searchOnTickOffset(t4).getNote());
+		assertEquals(null, eventList.searchOnTickOffset(t4*2));
+		assertEquals(58, eventList.searchOnTickOffset(t4*4-1).getNote());
+		assertEquals(null, eventList.searchOnTickOffset(t4*4));
+		assertEquals(null, new MMLEventList("").searchOnTickOffset(0));
+	}
+
+	@Test
+	public void testSearchOnTickOffsetNextNote() throws MMLException {
+		int t4 = MMLTicks.getTick("4");
+		MMLEventList eventList = new MMLEventList("arb-c");
+
+		assertEquals(58, eventList.searchOnTickOffsetNextNote(0).getNote());
+		assertEquals(null, eventList.searchOnTickOffsetNextNote(t4));
+		assertEquals(48, eventList.searchOnTickOffsetNextNote(t4*2).getNote());
+		assertEquals(null, eventList.searchOnTickOffsetNextNote(t4*3));
+	}
+
 	@Test
 	public void testToMMLString_0() throws MMLExceptionList {
 		MMLEventList eventList = new MMLEventList("ara");
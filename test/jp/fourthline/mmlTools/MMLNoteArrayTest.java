@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import jp.fourthline.mmlTools.core.TuningBase;
+
+public class MMLNoteArrayTest {
+
+	@Test
+	public void test_of() {
+		var eventList = new MMLEventList("v12c4d8.&d32e-16r8o2f+1");
+		eventList.getMMLNoteEventList().get(1).setTuningNote(TuningBase.L64);
+		eventList.getMMLNoteEventList().get(2).setMute(true);
+
+		var list = eventList.getMMLNoteEventList();
+		var array = MMLNoteArray.of(list);
+		assertEquals(list.size(), array.size());
+		assertEquals(list, array.asList());
+		for (int i = 0; i < list.size(); i++) {
+			var noteEvent = list.get(i);
+			assertEquals(noteEvent.getTickOffset(), array.getTickOffset(i));
+			assertEquals(noteEvent.getTick(), array.getTick(i));
+			assertEquals(noteEvent.getEndTick(), array.getEndTick(i));
+			assertEquals(noteEvent.getNote(), array.getNote(i));
+			assertEquals(noteEvent.getVelocity(), array.getVelocity(i));
+			assertEquals(noteEvent.getTuningBase(), array.getTuningBase(i));
+			assertEquals(noteEvent.isMute(), array.isMute(i));
+			assertEquals(noteEvent.isMute(), array.get(i).isMute());
+		}
+
+		// 複写なので元のノートとは独立している.
+		array.setTick(0, 1);
+		assertEquals(96, list.get(0).getTick());
+		assertNotSame(array.get(0), array.get(0));
+	}
+
+	@Test
+	public void test_insert() {
+		var array = new MMLNoteArray(1);
+		array.add(new MMLNoteEvent(48, 96, 0));
+		array.add(new MMLNoteEvent(52, 96, 192));
+		array.add(1, new MMLNoteEvent(50, 48, 0, 12), 96, 96);
+		array.add(0, new MMLNoteEvent(40, 48, 0, 0), 0, 48);
+
+		assertEquals(4, array.size());
+		assertEquals(new MMLNoteEvent(40, 48, 0, 0), array.get(0));
+		assertEquals(new MMLNoteEvent(48, 96, 0), array.get(1));
+		assertEquals(new MMLNoteEvent(50, 96, 96, 12), array.get(2));
+		assertEquals(new MMLNoteEvent(52, 96, 192), array.get(3));
+
+		array.clear();
+		assertTrue(array.isEmpty());
+		assertEquals(0, array.asList().size());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void test_outOfBounds() {
+		var array = new MMLNoteArray();
+		array.add(new MMLNoteEvent(48, 96, 0));
+		array.clear();
+		array.getNote(0);
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import jp.fourthline.mmlTools.core.MMLException;
+import jp.fourthline.mmlTools.core.TuningBase;
+import jp.fourthline.mmlTools.optimizer.MMLStringOptimizer;
+import jp.fourthline.mmlTools.parser.MMLParseException;
+
+public class MMLScoreSnapshotTest {
+
+	private static MMLScore load(String name) throws MMLParseException {
+		var stream = MMLScoreSnapshotTest.class.getResourceAsStream(name);
+		return new MMLScoreSerializer(new MMLScore()).parse(stream);
+	}
+
+	private static void checkSnapshot(MMLScore score) {
+		byte[] snapshot = score.getSnapshot();
+		var restore = new MMLScore();
+		restore.putSnapshot(snapshot);
+
+		assertEquals(new String(score.getObjectState()), new String(restore.getObjectState()));
+		assertArrayEquals(snapshot, restore.getSnapshot());
+		assertEquals(score.getTrackCount(), restore.getTrackCount());
+		for (int i = 0; i < score.getTrackCount(); i++) {
+			assertEquals(score.getTrack(i), restore.getTrack(i));
+			assertSame(restore.getTempoEventList(), restore.getTrack(i).getGlobalTempoList());
+		}
+	}
+
+	@Test
+	public void testFiles() throws MMLParseException {
+		String[] files = { "format0.mmi", "format1.mmi", "format_r1.mmi", "parser/sample1.mmi", "parser/sample_960.mmi" };
+		for (String name : files) {
+			checkSnapshot(load(name));
+		}
+	}
+
+	@Test
+	public void testParts() throws MMLException {
+		var score = new MMLScore();
+		score.addTrack(new MMLTrack().setMML("MML@cde,,;"));
+		score.addTrack(new MMLTrack().setMML("MML@gab,,;"));
+		var parts = score.getSnapshotParts();
+
+		// 変更のないトラックは同じ配列を使用する.
+		score.getTrack(1).getMMLEventAtIndex(0).getMMLNoteEventList().get(0).setVelocity(12);
+		var parts2 = score.getSnapshotParts();
+		assertSame(parts.tracks()[0], parts2.tracks()[0]);
+		assertNotSame(parts.tracks()[1], parts2.tracks()[1]);
+		assertNotEquals(parts, parts2);
+		assertArrayEquals(score.getSnapshot(), MMLScoreSnapshot.write(score));
+
+		// 復元したトラックは, 復元元の配列を使用する.
+		score.putSnapshot(parts);
+		var parts3 = score.getSnapshotParts();
+		assertEquals(parts, parts3);
+		assertSame(parts.tracks()[0], parts3.tracks()[0]);
+		assertSame(parts.tracks()[1], parts3.tracks()[1]);
+		assertEquals(8, score.getTrack(1).getMMLEventAtIndex(0).getMMLNoteEventList().get(0).getVelocity());
+	}
+
+	@Test
+	public void testScore() throws MMLException {
+		var score = new MMLScore();
+		score.setTitle("title");
+		score.setAuthor("author");
+		score.setBaseTime("3/4");
+		var track = new MMLTrack().setMML("MML@t150cde,rrg,,c;");
+		track.setTrackName("track1");
+		track.setProgram(5);
+		track.setSongProgram(120);
+		track.setVisible(false);
+		track.setDisableNopt(true);
+		score.addTrack(track);
+		track.getMMLEventAtIndex(1).getMMLNoteEventList().get(0).setTuningNote(TuningBase.L32);
+		score.getMarkerList().add(new Marker("marker1", 96));
+		score.addTimeSignature(new TimeSignature(score, 288, 6, 8));
+
+		checkSnapshot(score);
+
+		var restore = new MMLScore();
+		restore.putSnapshot(score.getSnapshot());
+		var restoreTrack = restore.getTrack(0);
+		assertEquals("track1", restoreTrack.getTrackName());
+		assertEquals(120, restoreTrack.getSongProgram());
+		assertFalse(restoreTrack.isVisible());
+		assertTrue(restoreTrack.getDisableNopt());
+		assertEquals(TuningBase.L32, restoreTrack.getMMLEventAtIndex(1).getMMLNoteEventList().get(0).getTuningBase());
+		assertEquals("marker1", restore.getMarkerList().get(0).getName());
+		assertEquals("6/8", restore.getTimeSignatureList().get(0).toMMLString());
+		assertEquals(150, restore.getTempoOnTick(0));
+	}
+
+	@Test
+	public void testGenerateResult() throws Exception {
+		var count = new AtomicInteger();
+		Function<MMLStringOptimizer, String> f = t -> {
+			count.incrementAndGet();
+			return t.toString();
+		};
+		MMLTrack.setMabiMMLOptimizeFunc(f);
+		try {
+			var score = new MMLScore();
+			score.addTrack(new MMLTrack().setMML("MML@cde,efg,,;"));
+			score.addTrack(new MMLTrack().setMML("MML@gab,,,;"));
+			score.generateAll();
+			byte[] snapshot = score.getSnapshot();
+			String mabiMML = score.getTrack(0).getMabiMML();
+
+			// 復元直後はgenerateされていない状態
+			score.putSnapshot(snapshot);
+			assertTrue(score.getTrack(0).mmlRankFormat().startsWith("*"));
+			assertNotEquals(mabiMML, score.getTrack(0).getMabiMML());
+
+			// 同じ内容のトラックは前回のgenerate結果を使う
+			count.set(0);
+			score.generateAll();
+			assertEquals(0, count.get());
+			assertEquals(mabiMML, score.getTrack(0).getMabiMML());
+
+			// 変更したトラックのみ generate する
+			score.getTrack(1).getMMLEventAtIndex(0).getMMLNoteEventList().get(0).setNote(50);
+			score.generateAll();
+			score.putSnapshot(snapshot);
+			count.set(0);
+			score.generateAll();
+			assertEquals(4, count.get()); // トラック2の4パート分
+			assertEquals(mabiMML, score.getTrack(0).getMabiMML());
+			assertEquals("MML@gab,,;", score.getTrack(1).getMabiMML());
+		} finally {
+			MMLTrack.setMabiMMLOptimizeFunc(null);
+		}
+	}
+
+	@Test(expected = MMLParseException.class)
+	public void testInvalid() throws MMLParseException {
+		MMLScoreSnapshot.read(new MMLScore(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022-2024 たんらる
+ * Copyright (C) 2022-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -178,6 +178,8 @@ public class MMLTempoConverterTest {
 
 		var converter = MMLTempoConverter.convert(score, List.of());
 		assertEquals("2.714/13", converter.getConversionDiff());
+		assertTrue(converter.getMaxConversionDiff() > 0.0);
+		assertTrue(converter.getMaxConversionDiff() <= 0.5);
 
 		score.generateAll();
 		assertEquals("MML@c8l11&cc7&c13c8&cl3ddd,,;", score.getTrack(0).getMabiMML());
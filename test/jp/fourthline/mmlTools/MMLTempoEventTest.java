@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2022 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -7,6 +7,9 @@ package jp.fourthline.mmlTools;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -130,4 +133,23 @@ public class MMLTempoEventTest {
 		assertFalse(t1.equals(t4));
 		assertFalse(t1.equals(""));
 	}
+
+	@Test
+	public void test_searchRandomAccess() {
+		var random = new Random(1);
+		List<MMLTempoEvent> arrayList = new ArrayList<>();
+		List<MMLTempoEvent> linkedList = new LinkedList<>();
+		for (int i = 0; i < 300; i++) {
+			int tempo = 60 + random.nextInt(4) * 30;
+			int tick = random.nextInt(100) * 24;
+			new MMLTempoEvent(tempo, tick, (i % 3) == 0).appendToListElement(arrayList);
+			new MMLTempoEvent(tempo, tick, (i % 3) == 0).appendToListElement(linkedList);
+		}
+		assertEquals(linkedList, arrayList);
+
+		for (int tick = -24; tick < 2500; tick += 6) {
+			assertEquals(MMLTempoEvent.searchOnTick(linkedList, tick), MMLTempoEvent.searchOnTick(arrayList, tick));
+			assertEquals(MMLTempoEvent.searchEqualsTick(linkedList, tick), MMLTempoEvent.searchEqualsTick(arrayList, tick));
+		}
+	}
 }
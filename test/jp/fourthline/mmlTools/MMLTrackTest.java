@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -736,6 +736,54 @@ public class MMLTrackTest {
 		MMLTrack.setPercussionMotionFixFunction(t -> false);
 	}
 
+	/**
+	 * 楽器情報による打楽器モーション用の休符処理.
+	 */
+	@Test
+	public void testPercussionMotionFix_instCatalog() throws MMLExceptionList, MMLVerifyException {
+		String input  = "MML@t120l1.rrrrrrrrrrrrrrr1r3r27g64rrrrrrrrrrrrrrr1r3r27g64,,;";
+		String expect = "MML@t120l1.rrrrrrrrrrrrrrr1r3v0c27v8g64rrrrrrrrrrrrrrr1r3v0c27v8g64,,;";
+		MMLTrack.setInstCatalog(new IInstCatalog() {
+			@Override
+			public boolean isAvailable(int program) {
+				return true;
+			}
+			@Override
+			public boolean[] getEnablePart(int program) {
+				return new boolean[] { true, true, true, false };
+			}
+			@Override
+			public boolean isSongOnly(int program) {
+				return false;
+			}
+			@Override
+			public boolean allowTempoChordPart(int program) {
+				return true;
+			}
+			@Override
+			public boolean percussionMotionFix(int program) {
+				return program == 66;
+			}
+			@Override
+			public int getDrumProgram() {
+				return -1;
+			}
+		});
+		try {
+			MMLTrack track = new MMLTrack().setMML(input);
+			track.generate();
+			assertEquals(input, track.getMabiMML());
+
+			track.setProgram(66);
+			track.generate();
+			assertEquals(expect, track.getMabiMML());
+		} finally {
+			MMLTrack.setInstCatalog(null);
+		}
+		assertSame(IInstCatalog.NONE, MMLTrack.getInstCatalog());
+		assertFalse(MMLTrack.percussionMotionFix.apply(66));
+	}
+
 	@Test
 	public void testPercussionMotionFix_1() throws MMLExceptionList, MMLVerifyException {
 		String input  = "MML@t120l1.rrrrrrrrrrrrrrr1r3r29g64rrrrrrrrrrrrrrr1r3r29g64,,;";
@@ -819,4 +867,32 @@ public class MMLTrackTest {
 		String expect = "MML@l1rv0ct55rrv8l8ggggl1.rrrrrrv0crv8l8dddd,l1.rrr1g8g8g8g8rrrrrrrrl8dddd,l1.rrr1g8g8g8g8rrrrrrrrl8dddd,l1rrt55rrl8ggggl1.rrrrrrrrl8dddd;";
 		testPercussionMotionFix(input, expect);
 	}
+
+	/**
+	 * 内容に変更がなければgenerate結果を再利用し, 変更があれば再生成する.
+	 */
+	@Test
+	public void testGenerateCache() throws MMLExceptionList, MMLVerifyException {
+		MMLTrack track = new MMLTrack().setMML("MML@aaa,bbb,ccc,ddd;");
+		new MMLTempoEvent(150, 48).appendToListElement(track.getGlobalTempoList());
+		String[] expect1 = { "a8t150v0a8v8aa", "bbb", "ccc", "d8t150v0d8v8dd" };
+		assertArrayEquals(expect1, track.generate().getMabiMMLArray());
+		assertArrayEquals(expect1, track.generate().getMabiMMLArray());
+
+		// ノートの変更
+		track.getMMLEventAtIndex(1).getMMLNoteEventList().get(0).setNote(new MMLEventList("c").getLastNote().getNote());
+		String[] expect2 = { "a8t150v0a8v8aa", "cbb", "ccc", "d8t150v0d8v8dd" };
+		assertArrayEquals(expect2, track.generate().getMabiMMLArray());
+		assertEquals("MML@a8t150&a8aa,cbb,ccc,d8t150&d8dd;", track.getOriginalMML());
+
+		// テンポの変更
+		track.getGlobalTempoList().get(0).setTempo(160);
+		String[] expect3 = { "a8t160v0a8v8aa", "cbb", "ccc", "d8t160v0d8v8dd" };
+		assertArrayEquals(expect3, track.generate().getMabiMMLArray());
+
+		// 同じ内容のMMLを再設定した場合は再利用される.
+		track.setMML("MML@l8at160&aa4a4,cbb,ccc,l8dt160&dd4d4;");
+		assertArrayEquals(expect3, track.generate().getMabiMMLArray());
+		assertEquals("MML@a8t160&a8aa,cbb,ccc,d8t160&d8dd;", track.getOriginalMML());
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2022 たんらる
+ * Copyright (C) 2022-2025 たんらる
  */
 
 package jp.fourthline.mmlTools;
@@ -84,4 +84,60 @@ public final class MeasureTest {
 		assertEquals("6", new Measure(score, 384+384+384).timeCount());
 		assertEquals("8", new Measure(score, 384+384+384).timeBase());
 	}
+
+	/** 1拍ずつ進める tick→小節 の計算 */
+	private static int tickToMeasureByBeat(MMLScore score, int tick) {
+		var timeSignatureIterator = score.getTimeSignatureList().iterator();
+		int numTime = score.getTimeCountOnly();
+		int beatTick = score.getBeatTick();
+		int m = 0;
+		TimeSignature timeSignature = timeSignatureIterator.hasNext() ? timeSignatureIterator.next() : null;
+		while (beatTick <= tick) {
+			if ( (timeSignature != null) && (m >= timeSignature.getMeasureOffset()) ) {
+				numTime = timeSignature.getNumTime();
+				beatTick = timeSignature.getBaseTick();
+				timeSignature = timeSignatureIterator.hasNext() ? timeSignatureIterator.next() : null;
+			}
+			int measureTick = numTime * beatTick;
+			if (measureTick <= tick) {
+				m++;
+				tick -= measureTick;
+			} else {
+				tick -= beatTick;
+			}
+		}
+		return m;
+	}
+
+	@Test
+	public void test_tickToMeasure() throws MMLException {
+		score.addTimeSignature(new TimeSignature(score, 384, 3, 4));
+		score.addTimeSignature(new TimeSignature(score, 384+288*4, 6, 8));
+		score.addTimeSignature(new TimeSignature(score, 384+288*4+288*2, 5, 16));
+		for (int tick = 0; tick < 384*40; tick += 6) {
+			assertEquals(tickToMeasureByBeat(score, tick), TimeSignature.tickToMeasure(score, tick));
+		}
+		for (int measure = 0; measure < 40; measure++) {
+			int tick = TimeSignature.measureToTick(score, measure);
+			assertEquals(tick, TimeSignature.measureToCalcTick(score, measure));
+			assertEquals(measure, Measure.tickToMeasure(score, tick));
+			assertEquals(tick, Measure.measuredTick(score, tick + 6));
+		}
+	}
+
+	@Test
+	public void test_measureIndex() throws MMLException {
+		assertEquals(1, Measure.tickToMeasure(score, 384));
+		score.setBaseTime("2/4");
+		assertEquals(2, Measure.tickToMeasure(score, 384));
+
+		score.addTimeSignature(new TimeSignature(score, 192, 4, 4));
+		assertEquals(1, Measure.tickToMeasure(score, 384));
+		assertEquals(192+384, TimeSignature.measureToTick(score, 2));
+
+		// リストを直接変更した場合も反映される
+		score.getTimeSignatureList().clear();
+		assertEquals(2, Measure.tickToMeasure(score, 384));
+		assertEquals(384, TimeSignature.measureToTick(score, 2));
+	}
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import jp.fourthline.mmlTools.core.MMLTickTable;
+
+public class TempoMapTest {
+
+	/** 逐次計算による tick→時間 */
+	private static double timeOnTick(List<MMLTempoEvent> tempoList, int tickOffset) {
+		double totalTime = 0L;
+		int tempo = MMLTempoEvent.INITIAL_TEMPO;
+		int currentTick = 0;
+		for (MMLTempoEvent tempoEvent : tempoList) {
+			int currentTempoTick = tempoEvent.getTickOffset();
+			if (tickOffset < currentTempoTick) {
+				break;
+			}
+			int currentTempo = tempoEvent.getTempo();
+			if (tempo != currentTempo) {
+				totalTime += (currentTempoTick - currentTick) * 60000.0 / tempo;
+				currentTick = currentTempoTick;
+			}
+			tempo = currentTempo;
+		}
+		totalTime += (tickOffset - currentTick) * 60000.0 / tempo;
+		return totalTime / MMLTickTable.TPQN;
+	}
+
+	/** 逐次計算による 時間→tick */
+	private static double tickOnTime(List<MMLTempoEvent> tempoList, double time) {
+		int tempo = MMLTempoEvent.INITIAL_TEMPO;
+		double pointTime = 0;
+		double tick = 0;
+		for (MMLTempoEvent tempoEvent : tempoList) {
+			double tempoTime = timeOnTick(tempoList, tempoEvent.getTickOffset());
+			if (time <= tempoTime) {
+				break;
+			}
+			pointTime = tempoTime;
+			tempo = tempoEvent.getTempo();
+			tick = tempoEvent.getTickOffset();
+		}
+		tick += (time - pointTime) * MMLTickTable.TPQN * tempo / 60 / 1000;
+		return tick;
+	}
+
+	@Test
+	public void test_sameAsSequential() {
+		var random = new Random(1);
+		for (int n = 0; n < 20; n++) {
+			List<MMLTempoEvent> tempoList = new ArrayList<>();
+			int count = random.nextInt(50);
+			for (int i = 0; i < count; i++) {
+				new MMLTempoEvent(30 + random.nextInt(8) * 30, random.nextInt(200) * 48).appendToListElement(tempoList);
+			}
+			var tempoMap = TempoMap.of(tempoList);
+			for (int tick = -96; tick < 10000; tick += 7) {
+				assertEquals(Double.doubleToLongBits(timeOnTick(tempoList, tick)), Double.doubleToLongBits(tempoMap.getTimeOnTickOffset(tick)));
+			}
+			for (double time = 0; time < 20000; time += 13.7) {
+				assertEquals(Double.doubleToLongBits(tickOnTime(tempoList, time)), Double.doubleToLongBits(tempoMap.getTickOffsetOnTime(time)));
+			}
+			for (MMLTempoEvent tempo : tempoList) {
+				double time = timeOnTick(tempoList, tempo.getTickOffset());
+				assertEquals(Double.doubleToLongBits(tickOnTime(tempoList, time)), Double.doubleToLongBits(tempoMap.getTickOffsetOnTime(time)));
+			}
+		}
+	}
+
+	@Test
+	public void test_empty() {
+		var tempoMap = TempoMap.of(List.of());
+		assertEquals(500.0, tempoMap.getTimeOnTickOffset(96), 0.0);
+		assertEquals(96.0, tempoMap.getTickOffsetOnTime(500.0), 0.0);
+	}
+
+	@Test
+	public void test_builder() {
+		var random = new Random(2);
+		for (int n = 0; n < 20; n++) {
+			List<MMLTempoEvent> tempoList = new ArrayList<>();
+			var builder = new TempoMap.Builder(1);
+			int tick = 0;
+			for (int i = 0; i < 30; i++) {
+				// 追加済みのテンポから作成した変換表と同じ結果になる
+				var tempoMap = TempoMap.of(tempoList);
+				for (double time = 0; time < 20000; time += 91.3) {
+					assertEquals(Double.doubleToLongBits(tempoMap.getTickOffsetOnTime(time)), Double.doubleToLongBits(builder.getTickOffsetOnTime(time)));
+				}
+				tick += random.nextInt(4) * 48;
+				var tempoEvent = new MMLTempoEvent(30 + random.nextInt(8) * 30, tick);
+				tempoList.add(tempoEvent);
+				builder.add(tempoEvent);
+			}
+		}
+	}
+
+	@Test
+	public void test_scoreTempoMap() {
+		var score = new MMLScore();
+		var tempoList = score.getTempoEventList();
+		var tempoMap = score.getTempoMap();
+		assertSame(tempoMap, score.getTempoMap());
+		assertEquals(500.0, tempoMap.getTimeOnTickOffset(96), 0.0);
+
+		// リストの変更
+		tempoList.add(new MMLTempoEvent(60, 0));
+		assertEquals(1000.0, score.getTempoMap().getTimeOnTickOffset(96), 0.0);
+		assertSame(score.getTempoMap(), score.getTempoMap());
+
+		// テンポイベントの変更
+		tempoList.get(0).setTempo(240);
+		assertEquals(250.0, score.getTempoMap().getTimeOnTickOffset(96), 0.0);
+		tempoList.get(0).setTickOffset(96);
+		assertEquals(500.0, score.getTempoMap().getTimeOnTickOffset(96), 0.0);
+
+		// 要素の置き換え
+		tempoList.set(0, new MMLTempoEvent(60, 0));
+		assertEquals(1000.0, score.getTempoMap().getTimeOnTickOffset(96), 0.0);
+
+		// スコアに追加したトラックはスコアの変換表を使う
+		var track = new MMLTrack().setMML("MML@t60c;");
+		score.addTrack(track);
+		assertSame(score.getTempoMap(), track.getTempoMap());
+	}
+}
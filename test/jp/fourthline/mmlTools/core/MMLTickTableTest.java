@@ -66,4 +66,46 @@ public final class MMLTickTableTest extends FileSelect {
 		assertNotNull(tickTable);
 		assertEquals(750, tickTable.getInvTable().validCount());
 	}
+
+	@Test
+	public void test_lengthTick() {
+		MMLTickTable tickTable = MMLTickTable.getInstance();
+		tickTable.getTable().forEach((key, tick) -> {
+			boolean dot = key.endsWith(".");
+			int length = Integer.parseInt(dot ? key.substring(0, key.length() - 1) : key);
+			assertEquals(key, tick.intValue(), tickTable.getTick(length, dot));
+		});
+		assertEquals(-1, tickTable.getTick(0, false));
+		assertEquals(-1, tickTable.getTick(-1, true));
+		assertEquals(-1, tickTable.getTick(65, false));
+		assertEquals(6, tickTable.getMinimumTick());
+	}
+
+	private static String invTableText(MMLTickTable tickTable, Switch sw) {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		tickTable.tableInvSwitch(sw);
+		tickTable.writeToOutputStreamInvTable(outputStream, true);
+		return outputStream.toString();
+	}
+
+	@Test
+	public void test_binaryInvTable() throws IOException {
+		MMLTickTable tickTable1 = new MMLTickTable(null);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		tickTable1.writeBinaryInvTable(outputStream);
+		byte[] binary = outputStream.toByteArray();
+		assertTrue(MMLTickTable.checkBinaryInvTable(binary));
+
+		MMLTickTable tickTable2 = new MMLTickTable(null, binary);
+		assertEquals(invTableText(tickTable1, Switch.FULL), invTableText(tickTable2, Switch.FULL));
+		assertEquals(invTableText(tickTable1, Switch.MB), invTableText(tickTable2, Switch.MB));
+
+		// 破損している場合は生成する.
+		binary[binary.length / 2] ^= 1;
+		assertFalse(MMLTickTable.checkBinaryInvTable(binary));
+		assertFalse(MMLTickTable.checkBinaryInvTable(new byte[8]));
+		MMLTickTable tickTable3 = new MMLTickTable(null, binary);
+		assertEquals(invTableText(tickTable1, Switch.FULL), invTableText(tickTable3, Switch.FULL));
+		assertEquals(invTableText(tickTable1, Switch.MB), invTableText(tickTable3, Switch.MB));
+	}
 }
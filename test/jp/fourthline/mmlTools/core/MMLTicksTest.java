@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2015-2020 たんらる
+ * Copyright (C) 2015-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.core;
@@ -105,4 +105,30 @@ public final class MMLTicksTest {
 	public void test_minimumTick() {
 		assertEquals(6, MMLTicks.minimumTick());
 	}
+
+	/**
+	 * 数値の音長からの変換.
+	 */
+	@Test
+	public void test_lengthTick() throws MMLException {
+		for (int i = 1; i <= MMLTicks.MAX_LENGTH; i++) {
+			assertEquals(MMLTicks.getTick(Integer.toString(i)), MMLTicks.lengthTick(i, false));
+			assertEquals(MMLTicks.getTick(i + "."), MMLTicks.lengthTick(i, true));
+		}
+		assertEquals(-1, MMLTicks.lengthTick(0, false));
+		assertEquals(-1, MMLTicks.lengthTick(65, true));
+	}
+
+	@Test
+	public void test_parseTick() throws MMLException {
+		assertEquals(72, MMLTicks.parseTick("c8.", 1, 3));
+		assertEquals(72, MMLTicks.parseTick("8...", 0, 4));
+		assertEquals(6, MMLTicks.parseTick("64", 0, 2));
+		assertEquals(-1, MMLTicks.parseTick("65", 0, 2));
+		assertEquals(-1, MMLTicks.parseTick("04", 0, 2));
+		assertEquals(-1, MMLTicks.parseTick("8.@", 0, 3));
+		assertEquals(-1, MMLTicks.parseTick(".8", 0, 2));
+		assertEquals(-1, MMLTicks.parseTick("", 0, 0));
+		assertEquals(MMLTicks.getTick("8.@"), MMLTicks.getTick("8."));
+	}
 }
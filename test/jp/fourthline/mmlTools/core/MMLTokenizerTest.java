@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2016-2024 たんらる
+ * Copyright (C) 2016-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.core;
@@ -35,4 +35,54 @@ public class MMLTokenizerTest {
 		assertFalse(MMLTokenizer.isLenOnly(""));
 		assertFalse(MMLTokenizer.isLenOnly("4l1"));
 	}
+
+	@Test
+	public void test_advance() {
+		String[] expect = { "a16", "b16.", "C", "d+++++", "FH--", "tu80" };
+		char[] expectType = { 'a', 'b', 'C', 'd', 'F', 't' };
+		MMLTokenizer tokenizer = new MMLTokenizer("a16b16.Cd+++++FH--tu80");
+		int i = 0;
+		while (tokenizer.hasNext()) {
+			assertEquals(expectType[i], tokenizer.advance());
+			assertEquals(expect[i], tokenizer.token());
+			i++;
+		}
+		assertEquals(expect.length, i);
+	}
+
+	@Test
+	public void test_tokenPool() {
+		MMLTokenizer tokenizer1 = new MMLTokenizer("c8d8c8");
+		MMLTokenizer tokenizer2 = new MMLTokenizer("c8");
+		String s1 = tokenizer1.next();
+		assertEquals("d8", tokenizer1.next());
+		assertEquals(s1, tokenizer1.next());
+		assertEquals(s1, tokenizer2.next());
+		assertEquals("c8", s1);
+	}
+
+	@Test
+	public void test_appendTo() {
+		String mml = "a16b16.Cd+++++FH--tu80";
+		MMLTokenizer tokenizer = new MMLTokenizer(mml);
+		StringBuilder sb = new StringBuilder();
+		while (tokenizer.hasNext()) {
+			tokenizer.advance();
+			int len = sb.length();
+			tokenizer.appendTo(sb);
+			assertEquals(tokenizer.getEnd() - tokenizer.getStart(), sb.length() - len);
+		}
+		assertEquals(mml, sb.toString());
+	}
+
+	@Test
+	public void test_charClass() {
+		assertTrue(MMLTokenizer.isToken('&'));
+		assertTrue(MMLTokenizer.isToken('L'));
+		assertFalse(MMLTokenizer.isToken('8'));
+		assertFalse(MMLTokenizer.isToken('あ'));
+		assertTrue(MMLTokenizer.isNote('r'));
+		assertFalse(MMLTokenizer.isNote('t'));
+		assertFalse(MMLTokenizer.isNote('\u0100'));
+	}
 }
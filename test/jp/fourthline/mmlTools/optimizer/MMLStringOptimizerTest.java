@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2013-2024 たんらる
+ * Copyright (C) 2013-2025 たんらる
  */
 
 package jp.fourthline.mmlTools.optimizer;
@@ -17,6 +17,7 @@ import jp.fourthline.mmlTools.MMLBuilder;
 import jp.fourthline.mmlTools.MMLEventList;
 import jp.fourthline.mmlTools.MMLExceptionList;
 import jp.fourthline.mmlTools.core.MMLTicks;
+import jp.fourthline.mmlTools.core.MMLTokenizer;
 import jp.fourthline.mmlTools.core.MMLException;
 
 /**
@@ -644,6 +645,40 @@ public class MMLStringOptimizerTest {
 		checkMMLStringOptimize(input, expect, t -> t.optimizeGen3());
 	}
 
+	private static String optimizeByString(MMLStringOptimizer.Optimizer optimizer, String mml) {
+		new MMLTokenizer(mml).forEachRemaining(optimizer::nextToken);
+		return optimizer.getMinString();
+	}
+
+	private static String optimizeByTokenizer(MMLStringOptimizer.Optimizer optimizer, String mml) {
+		var tokenizer = new MMLTokenizer(mml);
+		while (tokenizer.hasNext()) {
+			tokenizer.advance();
+			optimizer.nextToken(tokenizer);
+		}
+		return optimizer.getMinString();
+	}
+
+	/**
+	 * トークン位置による処理は, トークン文字列による処理と同じ結果になる.
+	 */
+	@Test
+	public void test_nextTokenByTokenizer() {
+		MMLStringOptimizer.setDebug(false);
+		String[] mmlList = {
+				"o5c8d8e8>c8<b8<b>c8o3g4l16aab",
+				"t150v12l8o4c<b>c&c16r16>c<<a+&a+4o6c-&c-",
+				"o4l4c>c<c>c<o2a&a>>>d8.r2n60",
+				"<c>>b<ccv10o5l1.c&c"
+		};
+		for (String mml : mmlList) {
+			assertEquals(optimizeByString(new OxLxOptimizer(), mml), optimizeByTokenizer(new OxLxOptimizer(), mml));
+			assertEquals(optimizeByString(new BpCmOptimizer(), mml), optimizeByTokenizer(new BpCmOptimizer(), mml));
+			assertEquals(optimizeByString(new NxOptimizer(), mml), optimizeByTokenizer(new NxOptimizer(), mml));
+			assertEquals(optimizeByString(new NxBpCmOptimizer(false), mml), optimizeByTokenizer(new NxBpCmOptimizer(false), mml));
+		}
+	}
+
 	@Test
 	public void test_cache() {
 		String expect1 =  "l64cr32cr32cr32c";
@@ -660,7 +695,7 @@ public class MMLStringOptimizerTest {
 		MMLStringOptimizer.setOptimizeLevel(MMLStringOptimizer.GEN1);
 		assertEquals(expect1, optimizer.preciseOptimize());
 
-		assertEquals(3, MMLStringOptimizer.getCache().keySet().size());
+		assertEquals(3, MMLStringOptimizer.getCache().size());
 
 		MMLStringOptimizer.setOptimizeLevel(MMLStringOptimizer.GEN2);
 	}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.optimizer;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class OptimizerCacheTest {
+	@Test
+	public final void test() {
+		var cache = new OptimizerCache(16 * 1024);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(OptimizerCache.Key.of(1, "c" + i), "c".repeat(100));
+		}
+		assertTrue(cache.getWeight() <= 16 * 1024);
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(1000, cache.size() + cache.getEvictionCount());
+	}
+
+	@Test
+	public final void test_key() {
+		var cache = new OptimizerCache();
+		cache.put(OptimizerCache.Key.of(2, "cde"), "l4cde");
+		assertEquals("l4cde", cache.get(OptimizerCache.Key.of(2, "cde")));
+		assertNull(cache.get(OptimizerCache.Key.of(3, "cde")));
+		assertNull(cache.get(OptimizerCache.Key.of(2, "cdf")));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.optimizer;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OptimizerDiskCacheTest {
+	private Path file;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("optcache", ".bin");
+		Files.delete(file);
+	}
+
+	@After
+	public void cleanup() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public final void test_saveAndLoad() {
+		var cache = OptimizerDiskCache.open(file, 1, OptimizerDiskCache.DEFAULT_MAX_BYTES);
+		assertEquals(0, cache.size());
+		cache.put(OptimizerCache.Key.of(4, "c8c8c8"), "l8ccc");
+		cache.put(OptimizerCache.Key.of(6, "c8c8c8"), "l8ccc");
+		cache.save();
+
+		var cache2 = OptimizerDiskCache.open(file, 1, OptimizerDiskCache.DEFAULT_MAX_BYTES);
+		assertEquals(2, cache2.size());
+		assertEquals("l8ccc", cache2.get(OptimizerCache.Key.of(4, "c8c8c8")));
+		assertNull(cache2.get(OptimizerCache.Key.of(4, "c8c8c")));
+
+		// バージョン不一致は破棄
+		var cache3 = OptimizerDiskCache.open(file, 2, OptimizerDiskCache.DEFAULT_MAX_BYTES);
+		assertEquals(0, cache3.size());
+	}
+
+	@Test
+	public final void test_corruptFile() throws IOException {
+		try (var out = new DataOutputStream(Files.newOutputStream(file))) {
+			out.writeUTF("MMLOptimizerCache");
+			out.writeInt(1);
+			out.writeInt(1);
+			out.writeLong(0);
+			out.writeLong(0);
+			out.writeInt(0);
+			out.writeInt(0);
+			out.writeInt(-5);
+		}
+		// 壊れたファイルは破棄して空のキャッシュになる.
+		var cache = OptimizerDiskCache.open(file, 1, OptimizerDiskCache.DEFAULT_MAX_BYTES);
+		assertEquals(0, cache.size());
+		cache.put(OptimizerCache.Key.of(4, "c8c8c8"), "l8ccc");
+		cache.save();
+		assertEquals(1, OptimizerDiskCache.open(file, 1, OptimizerDiskCache.DEFAULT_MAX_BYTES).size());
+	}
+
+	@Test
+	public final void test_maxBytes() {
+		var cache = OptimizerDiskCache.open(file, 1, 4096);
+		for (int i = 0; i < 100; i++) {
+			cache.put(OptimizerCache.Key.of(4, "c" + i), "c".repeat(100));
+		}
+		assertTrue(cache.size() < 100);
+		assertNotNull(cache.get(OptimizerCache.Key.of(4, "c99")));
+		assertNull(cache.get(OptimizerCache.Key.of(4, "c0")));
+	}
+
+	@Test
+	public final void test_optimizer() {
+		var cache = OptimizerDiskCache.open(file, 1, OptimizerDiskCache.DEFAULT_MAX_BYTES);
+		int level = MMLStringOptimizer.getOptimizeLevel();
+		try {
+			MMLStringOptimizer.setDiskCache(cache);
+			MMLStringOptimizer.setOptimizeLevel(MMLStringOptimizer.GEN2);
+			MMLStringOptimizer.clearAllCache();
+			String mml = new MMLStringOptimizer("c8d8e8f8g8").preciseOptimize();
+			assertEquals("l8cdefg", mml);
+			assertEquals(1, cache.size());
+
+			// ディスクキャッシュもクリアする
+			MMLStringOptimizer.clearAllCache();
+			assertEquals(0, cache.size());
+
+			// メモリキャッシュになくてもディスクキャッシュの結果を検査せずに使う
+			var key = OptimizerCache.Key.of(MMLStringOptimizer.GEN2 << 1, "c8d8e8f8g8");
+			cache.put(key, "l8cde8f8g8");
+			assertEquals("l8cde8f8g8", new MMLStringOptimizer("c8d8e8f8g8").preciseOptimize());
+		} finally {
+			MMLStringOptimizer.setDiskCache(null);
+			MMLStringOptimizer.setOptimizeLevel(level);
+			MMLStringOptimizer.clearAllCache();
+		}
+	}
+}
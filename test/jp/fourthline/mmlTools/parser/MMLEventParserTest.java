@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2025 たんらる
+ */
+
+package jp.fourthline.mmlTools.parser;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import jp.fourthline.mmlTools.MMLEvent;
+import jp.fourthline.mmlTools.MMLNoteEvent;
+import jp.fourthline.mmlTools.MMLTempoEvent;
+import jp.fourthline.mmlTools.core.TuningBase;
+
+public final class MMLEventParserTest {
+
+	private static List<MMLEvent> parse(String mml) {
+		var list = new ArrayList<MMLEvent>();
+		var parser = new MMLEventParser(mml);
+		while (parser.hasNext()) {
+			list.add(parser.next());
+		}
+		return list;
+	}
+
+	@Test
+	public void test_notes() {
+		var list = parse("MML@t150l8o5v10c4d+.e-16r<n60&n60l16.b>c");
+		var expect = List.of(
+				new MMLTempoEvent(150, 0),
+				new MMLNoteEvent(60, 96, 0, 10),
+				new MMLNoteEvent(63, 72, 96, 10),
+				new MMLNoteEvent(63, 24, 168, 10),
+				new MMLNoteEvent(60, 96, 240, 10),
+				new MMLNoteEvent(59, 36, 336, 10),
+				new MMLNoteEvent(60, 36, 372, 10));
+		assertEquals(expect.toString(), list.toString());
+		assertEquals(expect, list);
+		assertArrayEquals(new int[] { 37, 38 }, ((MMLNoteEvent) list.get(5)).getIndexOfMMLString());
+	}
+
+	/**
+	 * 通常の形式でない音長は MMLTicks.getTick(String) と同じく末尾の不要文字を無視する.
+	 */
+	@Test
+	public void test_irregularLength() {
+		var list = parse("c4x.d8..e  f8.@ l4.g");
+		var expect = List.of(
+				new MMLNoteEvent(48, 96, 0),
+				new MMLNoteEvent(50, 72, 96),
+				new MMLNoteEvent(52, 96, 168),
+				new MMLNoteEvent(53, 72, 264),
+				new MMLNoteEvent(55, 144, 336));
+		assertEquals(expect, list);
+	}
+
+	/**
+	 * 変換できない音長のノートはスキップする.
+	 */
+	@Test
+	public void test_undefinedLength() {
+		var list = parse("c65d4.5e04f");
+		var expect = List.of(
+				new MMLNoteEvent(53, 96, 0));
+		assertEquals(expect, list);
+	}
+
+	@Test
+	public void test_tuningNote() {
+		var list = parse("c64&c64&c64&c64");
+		assertEquals(1, list.size());
+		var note = (MMLNoteEvent) list.get(0);
+		assertEquals(24, note.getTick());
+		assertEquals(TuningBase.L64, note.getTuningBase());
+	}
+}